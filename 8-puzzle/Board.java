@@ -1,34 +1,82 @@
 import java.util.*;
 import java.io.*;
 
+/**
+ *  Tiles are stored row by row, position k = i*N + j holds the tile at row i, column j
+ *  N <= 4: all the tiles are packed in one long, 4 bits per tile, position k in bits 4k to 4k+3
+ *  N > 4:  one byte per tile (N <= 16 so every tile fits in a byte)
+ *  The blank's position is kept so neighbors don't have to look for it, and a neighbor
+ *  of a packed board is made by moving one nibble into the blank's place: O(1)
+ *  manhattan is worked out once for the first board. A neighbor moves one block by one
+ *  square, so its manhattan is just the parent's +1 or -1
+ */
 public class Board {
-    private int[][] blocks;
-    private int N;
+    private static final int PACKED_MAX = 4;   // biggest N that fits in a long
+    private static final int BYTE_MAX = 16;    // biggest N whose tiles fit in a byte
+    
+    private final int N;
+    private final long packed;  // tiles when N <= PACKED_MAX
+    private final byte[] tiles; // tiles when N > PACKED_MAX, null otherwise
+    private final int blank;    // position of the 0 block
+    private final int manhattan;
     
     public Board(int[][] blocks) {
         N = blocks[0].length;
-        this.blocks = new int[N][N];
+        if (N > BYTE_MAX) throw new IllegalArgumentException("N is " + N + " but at most " + BYTE_MAX + " is supported");
+        
+        long packed = 0;
+        byte[] tiles = (N > PACKED_MAX) ? new byte[N*N] : null;
+        int blank = -1;
         for (int i = 0; i < N; i++) {
             for (int j = 0; j < N; j++) {
-                this.blocks[i][j] = blocks[i][j];
+                int k = i*N + j;
+                if (blocks[i][j] == 0) blank = k;
+                if (tiles == null) packed |= (long) blocks[i][j] << 4*k;
+                else tiles[k] = (byte) blocks[i][j];
             }
         }
+        this.packed = packed;
+        this.tiles = tiles;
+        this.blank = blank;
+        this.manhattan = distance();
+    }
+    
+    private Board(int N, long packed, byte[] tiles, int blank, int manhattan) {
+        this.N = N;
+        this.packed = packed;
+        this.tiles = tiles;
+        this.blank = blank;
+        this.manhattan = manhattan;
     }
     
     public int dimension() { return N; }
     
+    // true if the tiles are packed in a long, see packed()
+    boolean isPacked() {
+        return tiles == null;
+    }
+    
+    // all the tiles packed in a long, only for boards up to 4x4
+    long packed() {
+        return packed;
+    }
+    
+    // tile at position k = i*N + j
+    int tile(int k) {
+        if (tiles == null) return (int) (packed >>> 4*k) & 0xF;
+        return tiles[k] & 0xFF;
+    }
+    
     /**
      *  returns the number of blocks in the wrong position
      */
     public int hamming() {
         int sum = 0;
-        for (int i = 0; i < N; i++) {
-            for (int j = 0; j < N; j++) {
-                int block = blocks[i][j]; 
-                
-                // if block at wrong place, add 1 to sum
-                if (block != 0 && block != i*N + j+1) sum++;  
-            }
+        for (int k = 0; k < N*N; k++) {
+            int block = tile(k);
+            
+            // if block at wrong place, add 1 to sum
+            if (block != 0 && block != k+1) sum++;
         }
         return sum;
     }
@@ -37,10 +85,15 @@ public class Board {
      *  returns the total distance of all blocks from their positions
      */
     public int manhattan() {
+        return manhattan;
+    }
+    
+    // manhattan from scratch, O(N^2)
+    private int distance() {
         int sum = 0;
         for (int i = 0; i < N; i++) {
             for (int j = 0; j < N; j++) {
-                int num = blocks[i][j];
+                int num = tile(i*N + j);
                 if (num == 0) continue;
                 int actual_row = (num-1) / N;
                 int actual_col = (num-1) % N;
@@ -56,85 +109,124 @@ public class Board {
      *  returns true if the total distance of all the blocks from their position is 0
      */
     public boolean isGoal() {
-        return manhattan() == 0;
+        return manhattan == 0;
     }
     
     /**
-     *  return an invalid(non-zero) neighbor 
+     *  returns true if the goal can be reached from this board
+     *  Count inversions: pairs of blocks (0 left out) where the bigger one comes first, row by row
+     *  Odd N:  a move keeps the parity of inversions, goal has 0, so solvable if it's even
+     *  Even N: a move up or down flips the parity of inversions and the blank's row together,
+     *          goal has inversions + blank row = N-1 (odd), so solvable if that sum is odd
+     */
+    public boolean isSolvable() {
+        long inversions = (tiles == null) ? smallInversions() : fenwickInversions();
+        if (N % 2 == 1) return inversions % 2 == 0;
+        return (inversions + blank / N) % 2 == 1;
+    }
+    
+    // at most 15 blocks, just check every pair
+    private long smallInversions() {
+        long count = 0;
+        for (int k = 0; k < N*N; k++) {
+            int a = tile(k);
+            if (a == 0) continue;
+            for (int l = k+1; l < N*N; l++) {
+                if (tile(l) != 0 && tile(l) < a) count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     *  O(N^2 logN): go through the blocks backwards, a Fenwick tree counts how many smaller
+     *  blocks are already seen (come after this one), then add this one
+     */
+    private long fenwickInversions() {
+        int[] tree = new int[N*N];  // tree[i] counts blocks i-lowbit(i)+1 to i, tree[0] isn't used
+        long count = 0;
+        for (int k = N*N - 1; k >= 0; k--) {
+            int a = tile(k);
+            if (a == 0) continue;
+            for (int i = a - 1; i > 0; i -= i & -i) count += tree[i];
+            for (int i = a; i < N*N; i += i & -i) tree[i]++;
+        }
+        return count;
+    }
+    
+    /**
+     *  return an invalid(non-zero) neighbor
      *  valid neighbor can only be obtain by switching 0 block
      */
-    public Board twin() {        
+    public Board twin() {
         if (N < 2) return this;
         
-        // neighbor the first 2 item in row 0 if 0 isn't in there
-        if (!zeroInRow(0)) return neighbor(0, 0, 1, "row");
-        else return neighbor(1, 0, 1, "row"); // else neighbor first 2 items from row 1        
+        // swap the first 2 items in row 0 if 0 isn't in there
+        if (blank >= 2) return swap(0, 1);
+        else return swap(N, N+1); // else swap first 2 items from row 1
     }
     
-    // only need to check first 2 items for 0
-    private boolean zeroInRow(int row) {
-        for (int i = 0; i < 2; i++) {
-            if (blocks[row][i] == 0) return true;
-        }
-        return false;
-    }
-    
-    /**  return neighbor by swapping blocks adjacent to the 0 block
-      *  intput: r      - the row or column number to switch on
-      *          i, j   - the position of the 2 blocks
-      *          swapBy - by row or by col
-      *  Note to self: this function alone takes N^2 time complexity
-      */
-    private Board neighbor(int r, int i, int j, String swapBy) {
-        Board board = new Board(blocks);
-        if (swapBy.equals("row")) {
-            int temp = board.blocks[r][i];
-            board.blocks[r][i] = board.blocks[r][j];
-            board.blocks[r][j] = temp;
-        }         
-        else if (swapBy.equals("col")) {
-            int temp = board.blocks[i][r];
-            board.blocks[i][r] = board.blocks[j][r];
-            board.blocks[j][r] = temp;            
+    /**
+     *  return a copy of this board with the blocks at positions k and l swapped
+     *  packed: clear both nibbles and put each tile in the other's place
+     *  manhattan only changes by how far the 2 moved blocks are from home now vs before
+     */
+    private Board swap(int k, int l) {
+        int newBlank = (k == blank) ? l : (l == blank) ? k : blank;
+        int a = tile(k);
+        int b = tile(l);
+        int newManhattan = manhattan + distance(a, l) - distance(a, k) + distance(b, k) - distance(b, l);
+        if (tiles == null) {
+            long p = packed & ~(0xFL << 4*k) & ~(0xFL << 4*l);
+            return new Board(N, p | ((long) a << 4*l) | ((long) b << 4*k), null, newBlank, newManhattan);
         }
-        return board;
+        byte[] t = tiles.clone();
+        t[k] = (byte) b;
+        t[l] = (byte) a;
+        return new Board(N, 0, t, newBlank, newManhattan);
+    }
+    
+    // distance of block num at position k from its own position, 0 for the 0 block
+    private int distance(int num, int k) {
+        if (num == 0) return 0;
+        return Math.abs((num-1) / N - k / N) + Math.abs((num-1) % N - k % N);
     }
     
     /**
      *  returns true if 2 boards are equal
      */
     public boolean equals(Object y) {
-        return this.toString().equals(y.toString());
+        if (y == this) return true;
+        if (!(y instanceof Board)) return false;
+        Board that = (Board) y;
+        return N == that.N && packed == that.packed && Arrays.equals(tiles, that.tiles);
+    }
+    
+    public int hashCode() {
+        if (tiles == null) return Long.hashCode(packed);
+        return Arrays.hashCode(tiles);
     }
     
     /**
      *  returns a queue of all the board's neighbors as a queue
      */
     public Iterable<Board> neighbors() {
-        
-        int i = 0;
-        int j = 0;
-        loopouter: {
-            for (i = 0; i < N; i++) {
-                for (j = 0; j < N; j++) {
-                    if (blocks[i][j] == 0) break loopouter;
-                }
-            }
-        }
+        int i = blank / N;
+        int j = blank % N;
         
         java.util.Stack<Board> neighbors = new java.util.Stack<Board>();
         // left blocks
         if (!invalidBlock(i, j-1)) {
-            neighbors.push(neighbor(i, j, j-1, "row"));
+            neighbors.push(swap(blank, blank-1));
         }
         if (!invalidBlock(i, j+1)) {
-            neighbors.push(neighbor(i, j, j+1, "row"));
+            neighbors.push(swap(blank, blank+1));
         }
-        if (!invalidBlock(i-1, j)) {            
-            neighbors.push(neighbor(j, i-1, i, "col"));
+        if (!invalidBlock(i-1, j)) {
+            neighbors.push(swap(blank, blank-N));
         }
-        if (!invalidBlock(i+1, j)) {            
-            neighbors.push(neighbor(j, i+1, i, "col"));            
+        if (!invalidBlock(i+1, j)) {
+            neighbors.push(swap(blank, blank+N));
         }
         return neighbors;
     }
@@ -149,7 +241,7 @@ public class Board {
         StringBuilder s = new StringBuilder();
         for (int i = 0; i < N; i++) {
             for (int j = 0; j < N; j++) {
-                s.append(String.format("%3d", blocks[i][j]));
+                s.append(String.format("%3d", tile(i*N + j)));
             }
             s.append("\n");
         }
@@ -0,0 +1,91 @@
+import java.util.HashMap;
+
+/**
+ * Boards seen by the search, with the fewest moves each was reached in
+ * Boards up to 4x4 are keyed on their packed long in an open addressing table:
+ *  keys[] and moves[] side by side, linear probing, no boxing and no Board kept alive
+ *  The slot is the top log2(capacity) bits of key * 2^64/phi (Fibonacci hashing)
+ *  Kept at most half full so probes stay short
+ *  Key 0 marks an empty slot. Only the 1x1 board packs to 0, it gets its own field
+ * Bigger boards fall back to a HashMap on Board's own equals and hashCode
+ */
+public class ClosedSet {
+    
+    private long[] keys;
+    private int[] moves;
+    private int size;
+    private int shift;                  // 64 - log2(keys.length), keeps the top bits of the product
+    private int zeroMoves = -1;         // best moves of the board that packs to 0, -1 if not seen
+    private HashMap<Board, Integer> big; // boards bigger than 4x4
+    
+    public ClosedSet() {
+        keys = new long[16];
+        moves = new int[16];
+        shift = 64 - 4;  // log2(16)
+    }
+    
+    public int size() {
+        if (big != null) return big.size();
+        return size + (zeroMoves < 0 ? 0 : 1);
+    }
+    
+    /**
+     * Record that board can be reached in g moves
+     * returns true if board wasn't seen before or g beats its best so far, false if
+     * the board was already reached in g moves or less and doesn't need to be searched again
+     */
+    public boolean improves(Board board, int g) {
+        if (!board.isPacked()) return improvesBig(board, g);
+        
+        long key = board.packed();
+        if (key == 0) {
+            if (zeroMoves >= 0 && zeroMoves <= g) return false;
+            zeroMoves = g;
+            return true;
+        }
+        
+        int mask = keys.length - 1;
+        int i = hash(key, shift);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                if (moves[i] <= g) return false;
+                moves[i] = g;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        moves[i] = g;
+        if (++size > keys.length / 2) resize(2 * keys.length);
+        return true;
+    }
+    
+    private boolean improvesBig(Board board, int g) {
+        if (big == null) big = new HashMap<Board, Integer>();
+        Integer best = big.get(board);
+        if (best != null && best <= g) return false;
+        big.put(board, g);
+        return true;
+    }
+    
+    // Fibonacci hashing, the top 64 - shift bits of key * 2^64/phi
+    private static int hash(long key, int shift) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+    
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldMoves = moves;
+        keys = new long[capacity];
+        moves = new int[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = hash(oldKeys[j], shift);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            moves[i] = oldMoves[j];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ *  Iterative deepening A*: same answers as Solver, but memory only grows with the number of moves
+ *  Depth first search that gives up on a board once moves + manhattan is over a bound
+ *  The first bound is the initial manhattan. When a search fails, the next bound is the
+ *  smallest moves + manhattan that went over, so the first solution found is a shortest one
+ *  No priority queue and no boards: one int[] of tiles is changed in place by a move and changed
+ *  back by undoing it, and manhattan is updated by the +1 or -1 of the tile that moved
+ *  Boards come back many times, so it's slower than Solver when Solver has the memory for it
+ */
+public class IDASolver {
+    private static final int FOUND = -1;
+    
+    private final Board initial;
+    private final int N;
+    private int[] tiles;     // the board being searched, changed in place
+    private int blank;       // position of the 0 block in tiles
+    private int[][] distance; // distance[num][k]: moves block num at position k is away from home
+    private int[] path;      // path[g]: where the blank went on move g+1
+    private int numMoves = -1;
+    
+    public IDASolver(Board initial) {
+        if (initial == null) throw new NullPointerException("initial board is null.");
+        this.initial = initial;
+        N = initial.dimension();
+        if (!initial.isSolvable()) return;
+        
+        tiles = new int[N*N];
+        for (int k = 0; k < N*N; k++) {
+            tiles[k] = initial.tile(k);
+            if (tiles[k] == 0) blank = k;
+        }
+        distance = new int[N*N][N*N];
+        for (int num = 1; num < N*N; num++) {
+            for (int k = 0; k < N*N; k++) {
+                distance[num][k] = Math.abs((num-1) / N - k / N) + Math.abs((num-1) % N - k % N);
+            }
+        }
+        path = new int[16];
+        
+        int bound = initial.manhattan();
+        while (true) {
+            int next = search(0, initial.manhattan(), bound, -1);
+            if (next == FOUND) break;
+            bound = next;
+        }
+        tiles = null;
+        distance = null;
+    }
+    
+    /**
+     *  Depth first from the current tiles, g moves made so far and h is their manhattan
+     *  from - where the blank just came from, moving back there only undoes the last move
+     *  returns FOUND with numMoves set, else the smallest g + h over bound seen
+     */
+    private int search(int g, int h, int bound, int from) {
+        int f = g + h;
+        if (f > bound) return f;
+        if (h == 0) {
+            numMoves = g;
+            return FOUND;
+        }
+        
+        int min = Integer.MAX_VALUE;
+        int i = blank / N;
+        int j = blank % N;
+        for (int d = 0; d < 4; d++) {
+            int next;
+            if (d == 0) { if (i == 0) continue; next = blank - N; }
+            else if (d == 1) { if (i == N-1) continue; next = blank + N; }
+            else if (d == 2) { if (j == 0) continue; next = blank - 1; }
+            else { if (j == N-1) continue; next = blank + 1; }
+            if (next == from) continue;
+            
+            // move: the block at next slides into the blank
+            int num = tiles[next];
+            int old = blank;
+            int newH = h - distance[num][next] + distance[num][old];
+            tiles[old] = num;
+            tiles[next] = 0;
+            blank = next;
+            if (g == path.length) path = Arrays.copyOf(path, 2 * path.length);
+            path[g] = next;
+            
+            int t = search(g+1, newH, bound, old);
+            if (t == FOUND) return FOUND;
+            if (t < min) min = t;
+            
+            // unmove
+            tiles[next] = num;
+            tiles[old] = 0;
+            blank = old;
+        }
+        return min;
+    }
+    
+    /**
+     *  return true if the node is solvable
+     */
+    public boolean isSolvable() {
+        return numMoves >= 0;
+    }
+    
+    public int moves() {
+        return numMoves;
+    }
+    
+    /**
+     *  Boards from initial to the goal, made by replaying the blank's moves
+     */
+    public Iterable<Board> solution() {
+        if (!isSolvable()) return null;
+        
+        int[][] blocks = new int[N][N];
+        int blank = 0;
+        for (int k = 0; k < N*N; k++) {
+            blocks[k / N][k % N] = initial.tile(k);
+            if (blocks[k / N][k % N] == 0) blank = k;
+        }
+        
+        java.util.Deque<Board> solution = new java.util.ArrayDeque<Board>();
+        solution.addLast(initial);
+        for (int g = 0; g < numMoves; g++) {
+            int next = path[g];
+            blocks[blank / N][blank % N] = blocks[next / N][next % N];
+            blocks[next / N][next % N] = 0;
+            blank = next;
+            solution.addLast(new Board(blocks));
+        }
+        return solution;
+    }
+    
+    public static void main(String[] args) {
+        Scanner sc = null;
+        // create initial board from file
+        try{
+            sc = new Scanner(new File(args[0]), "UTF-8");
+        }
+        catch (IOException ioe) { System.out.println("Could not open file" + args[0]); }
+        
+        int N = sc.nextInt();
+        int[][] blocks = new int[N][N];
+        for (int i = 0; i < N; i++)
+            for (int j = 0; j < N; j++)
+            blocks[i][j] = sc.nextInt();
+        Board initial = new Board(blocks);
+        
+        // solve the puzzle
+        IDASolver solver = new IDASolver(initial);
+        
+        // print solution to standard output
+        if (!solver.isSolvable())
+            System.out.println("No solution possible");
+        else {
+            System.out.println("Minimum number of moves = " + solver.moves());
+            for (Board board : solver.solution())
+                System.out.println(board);
+        }
+    }
+}
\ No newline at end of file
@@ -92,7 +92,9 @@ public class MinPQ<Key extends Comparable<Key>> {
         keys[N--] = null; 
         sink(1);
         
-        if (max.compareTo(min) == 0) max = null;
+        // max only leaves with the last item. If it was min itself, every item left equals it
+        if (N == 0) max = null;
+        else if (max == min) max = keys[1];
         return min;
     }
     
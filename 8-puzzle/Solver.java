@@ -9,17 +9,17 @@ public class Solver {
         private Board board;
         private int moves;
         private Node previous;
+        private final int priority; // manhattan + moves, worked out once instead of on every compare
         
         public Node(Board board, Node previous, int moves) {
             this.board = board;
             this.previous = previous;
             this.moves = moves;
+            this.priority = board.manhattan() + moves;
         }
         
         public int compareTo(Node other) {
-            Integer thisBoard = board.manhattan() + moves;
-            Integer otherBoard = other.board.manhattan() + other.moves;
-            return thisBoard.compareTo(otherBoard);
+            return Integer.compare(priority, other.priority);
         }
     }
     
@@ -27,53 +27,35 @@ public class Solver {
      *  Finds the closest neighbors that are connected to the initial node
      *  Makes a previous link as it goes until it reach the goal
      *  Follow the link back to initial node and add all the nodes to a stack
+     *  The closed set has the fewest moves every board was reached in, a board
+     *  reached again in as many moves or more is not inserted again
+     *  Unsolvable boards are found by Board.isSolvable() up front, so there's no search for them
      */
     public Solver(Board initial) {
         if (initial == null) throw new NullPointerException("initial board is null.");
+        if (!initial.isSolvable()) return;
         
         MinPQ<Node> minQ = new MinPQ<Node>();
+        ClosedSet closed = new ClosedSet();
         process = new Node(initial, null, 0);
         minQ.insert(process);
-                       
-        MinPQ<Node> twinQ = new MinPQ<Node>();
-        Node twin = new Node(initial.twin(), null, 0);
-        twinQ.insert(twin);
+        closed.improves(initial, 0);
         
-        Node remove = null;
-        Node removedTwin = null;
-        
-        while (!minQ.isEmpty()) {
+        while (true) {
             // remove lowest priority node
             process = minQ.deleteMin();
-            remove = process;
-            
-            twin = twinQ.deleteMin();
-            removedTwin = twin;
-            
             if (process.board.isGoal()) break;
-            if (twin.board.isGoal()) { process = null; break; }
-            
-            // iterate through all the neighbors
-            for (Board board : process.board.neighbors()) {
-                process = new Node(board, remove, remove.moves+1); 
-                
-                // do not insert if the board is the same as the board dequeued 1 step ago
-                if (remove.previous != null && process.equals(remove.previous)) continue;
-                minQ.insert(process);                  
-            }           
-            
-            for (Board board : twin.board.neighbors()) {
-                twin = new Node(board, removedTwin, removedTwin.moves+1);
-                if (removedTwin.previous != null && process.equals(removedTwin.previous)) continue;
-                twinQ.insert(twin);
-            }
-        }  
-        if (process != null) numMoves = process.moves;
+            expand(process, minQ, closed);
+        }
+        numMoves = process.moves;
     }
     
-    // returns true if calling node and other node is equal
-    private boolean equals(Node other) {
-        return process.board.equals(other.board);
+    // insert the neighbors of node not already reached in as few moves
+    private void expand(Node node, MinPQ<Node> pq, ClosedSet closed) {
+        for (Board board : node.board.neighbors()) {
+            if (!closed.improves(board, node.moves+1)) continue;
+            pq.insert(new Node(board, node, node.moves+1));
+        }
     }
     
     /**
@@ -1,15 +1,150 @@
+import java.util.Comparator;
+import java.util.Random;
+
 abstract class AbstractSort {
 	
+	private static final Random random = new Random();
+	
 	protected static void swap(Object[] obj, int i, int j) {
+		if (SortStats.ENABLED) SortStats.swap();
 		Object temp = obj[i];
 		obj[i] = obj[j];
 		obj[j] = temp;
 	}
 	
+	protected static void swap(int[] a, int i, int j) {
+		if (SortStats.ENABLED) SortStats.swap();
+		int temp = a[i];
+		a[i] = a[j];
+		a[j] = temp;
+	}
+	
+	protected static void swap(long[] a, int i, int j) {
+		if (SortStats.ENABLED) SortStats.swap();
+		long temp = a[i];
+		a[i] = a[j];
+		a[j] = temp;
+	}
+	
+	protected static void swap(double[] a, int i, int j) {
+		if (SortStats.ENABLED) SortStats.swap();
+		double temp = a[i];
+		a[i] = a[j];
+		a[j] = temp;
+	}
+	
+	/**
+	*	Knuth shuffle: swap every i-th item with a random item from 0 to i
+	*/
+	protected static void shuffle(Object[] a) {
+		for (int i = 1; i < a.length; i++) swap(a, i, random.nextInt(i + 1));
+	}
+	
+	// shuffle only a[lo] to a[hi]
+	protected static void shuffle(Object[] a, int lo, int hi) {
+		shuffle(a, lo, hi, random);
+	}
+	
+	/**
+	*	Shuffle with the given Random instead of the shared one
+	*	Parallel sorts pass ThreadLocalRandom so the threads don't contend on one seed
+	*/
+	protected static void shuffle(Object[] a, int lo, int hi, Random rand) {
+		for (int i = lo + 1; i <= hi; i++) swap(a, i, lo + rand.nextInt(i - lo + 1));
+	}
+	
+	protected static void shuffle(int[] a) {
+		for (int i = 1; i < a.length; i++) swap(a, i, random.nextInt(i + 1));
+	}
+	
+	protected static void shuffle(int[] a, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) swap(a, i, lo + random.nextInt(i - lo + 1));
+	}
+	
+	protected static void shuffle(long[] a) {
+		for (int i = 1; i < a.length; i++) swap(a, i, random.nextInt(i + 1));
+	}
+	
+	protected static void shuffle(long[] a, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) swap(a, i, lo + random.nextInt(i - lo + 1));
+	}
+	
+	protected static void shuffle(double[] a) {
+		for (int i = 1; i < a.length; i++) swap(a, i, random.nextInt(i + 1));
+	}
+	
+	protected static void shuffle(double[] a, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) swap(a, i, lo + random.nextInt(i - lo + 1));
+	}
+	
+	/**
+	*	NaN is never less than anything so it can't be sorted with <
+	*	Move all NaN to the end (where Double.compare puts them) before sorting
+	*	returns the index of the last non-NaN item, the primitive sorts use 0 to that index
+	*/
+	protected static int moveNaNsToEnd(double[] a) {
+		return moveNaNsToEnd(a, 0, a.length - 1);
+	}
+	
+	// same for only a[lo] to a[hi], returns the last non-NaN index (lo - 1 if all are NaN)
+	protected static int moveNaNsToEnd(double[] a, int lo, int hi) {
+		for (int i = hi; i >= lo; i--) {
+			if (a[i] != a[i]) swap(a, i, hi--);
+		}
+		return hi;
+	}
+	
+	/**
+	*	-0.0 == 0.0 with <, so after sorting 0 to hi the zeros are mixed together
+	*	Count the -0.0 in the zero run and rewrite it so -0.0 comes before 0.0
+	*/
+	protected static void fixZeros(double[] a, int hi) {
+		fixZeros(a, 0, hi);
+	}
+	
+	// same for a sorted a[from] to a[hi]
+	protected static void fixZeros(double[] a, int from, int hi) {
+		// binary search for the first zero (or the first positive item if there is none)
+		int lo = from;
+		int end = hi + 1;
+		while (lo < end) {
+			int mid = (lo + end) >>> 1;
+			if (a[mid] < 0.0) lo = mid + 1;
+			else end = mid;
+		}
+		
+		int negatives = 0;
+		int last = lo;
+		for (; last <= hi && a[last] == 0.0; last++) {
+			if (Double.doubleToRawLongBits(a[last]) < 0) negatives++;
+		}
+		if (SortStats.ENABLED) SortStats.move(last - lo);
+		for (int i = lo; i < last; i++) {
+			a[i] = (i < lo + negatives) ? -0.0 : 0.0;
+		}
+	}
+	
 	protected static <T extends Comparable<T>> boolean lessThan(T first, T second) {
+		if (SortStats.ENABLED) SortStats.compare();
 		return first.compareTo(second) < 0;
 	} 
 	
+	protected static <T> boolean lessThan(Comparator<? super T> c, T first, T second) {
+		if (SortStats.ENABLED) SortStats.compare();
+		return c.compare(first, second) < 0;
+	}
+	
+	/**
+	*	Check from and to of the public range sorts: 0 <= from <= to <= length
+	*	Every public range overload takes (from, to) with to exclusive, same as Arrays.sort
+	*	The recursive kernels behind them take (lo, hi) with hi inclusive and aren't public
+	*/
+	protected static void rangeCheck(int length, int from, int to) {
+		if (from > to) throw new IllegalArgumentException("from(" + from + ") > to(" + to + ")");
+		if (from < 0) throw new ArrayIndexOutOfBoundsException(from);
+		if (to > length) throw new ArrayIndexOutOfBoundsException(to);
+	}
+	
 	protected static void print(Comparable[] arr) {
 		for (Comparable item : arr) {
 			System.out.print(item + " ");
@@ -0,0 +1,286 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+*	QuickSort for primitives with BlockQuicksort partitioning
+*	Hoare partition branches on every compare (a[i] < pivot), which the cpu guesses wrong
+*	about half the time on random data. Here the left and right ends are scanned in blocks
+*	of BLOCK items: the compare result is just added to a counter, and the offsets of the
+*	items on the wrong side are saved. Then the saved items are swapped in pairs
+*	Neither loop has a branch that depends on the data, only on the loop counters
+*	The last 2 blocks or less are partitioned the Hoare way
+*	Pivot is the median of 3 random items, sub arrays of InsertionSort.CUTOFF or less are insertion sorted
+*/
+class BlockQuickSort extends AbstractSort {
+	
+	private static final int BLOCK = 128;
+	
+	public static void sort(int[] a) {
+		sort(a, 0, a.length - 1, new int[BLOCK], new int[BLOCK]);
+	}
+	
+	public static void sort(long[] a) {
+		sort(a, 0, a.length - 1, new int[BLOCK], new int[BLOCK]);
+	}
+	
+	// NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	public static void sort(double[] a) {
+		int hi = moveNaNsToEnd(a);
+		sort(a, 0, hi, new int[BLOCK], new int[BLOCK]);
+		fixZeros(a, hi);
+	}
+	
+	private static void sort(int[] a, int lo, int hi, int[] offsetsL, int[] offsetsR) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > InsertionSort.CUTOFF) {
+			swap(a, lo, pivot(a, lo, hi));
+			int p = partition(a, lo, hi, offsetsL, offsetsR);
+			
+			if (p - lo < hi - p) {
+				sort(a, lo, p-1, offsetsL, offsetsR);
+				lo = p + 1;
+			}
+			else {
+				sort(a, p+1, hi, offsetsL, offsetsR);
+				hi = p - 1;
+			}
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static int partition(int[] a, int lo, int hi, int[] offsetsL, int[] offsetsR) {
+		int pivot = a[lo];
+		int l = lo + 1;
+		int r = hi;
+		int startL = 0;
+		int startR = 0;
+		int numL = 0;
+		int numR = 0;
+		
+		while (r - l + 1 > 2 * BLOCK) {
+			if (numL == 0) {
+				startL = 0;
+				for (int i = 0; i < BLOCK; i++) {
+					offsetsL[numL] = i;
+					numL += (a[l+i] >= pivot) ? 1 : 0;
+				}
+			}
+			if (numR == 0) {
+				startR = 0;
+				for (int i = 0; i < BLOCK; i++) {
+					offsetsR[numR] = i;
+					numR += (pivot >= a[r-i]) ? 1 : 0;
+				}
+			}
+			
+			int num = Math.min(numL, numR);
+			for (int k = 0; k < num; k++) {
+				swap(a, l + offsetsL[startL+k], r - offsetsR[startR+k]);
+			}
+			numL -= num;
+			numR -= num;
+			startL += num;
+			startR += num;
+			if (numL == 0) l += BLOCK;
+			if (numR == 0) r -= BLOCK;
+		}
+		
+		// less than 2 blocks left (plus whatever is left of a half done block)
+		int i = l;
+		int j = r;
+		while (true) {
+			while (i <= j && a[i] < pivot) i++;
+			while (i <= j && pivot < a[j]) j--;
+			if (i >= j) break;
+			swap(a, i++, j--);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
+	// index of the median of 3 random items
+	private static int pivot(int[] a, int lo, int hi) {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int i = rand.nextInt(lo, hi + 1);
+		int j = rand.nextInt(lo, hi + 1);
+		int k = rand.nextInt(lo, hi + 1);
+		return (a[i] < a[j]) ?
+			((a[j] < a[k]) ? j : (a[i] < a[k]) ? k : i) :
+			((a[k] < a[j]) ? j : (a[k] < a[i]) ? k : i);
+	}
+	
+	private static void sort(long[] a, int lo, int hi, int[] offsetsL, int[] offsetsR) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > InsertionSort.CUTOFF) {
+			swap(a, lo, pivot(a, lo, hi));
+			int p = partition(a, lo, hi, offsetsL, offsetsR);
+			
+			if (p - lo < hi - p) {
+				sort(a, lo, p-1, offsetsL, offsetsR);
+				lo = p + 1;
+			}
+			else {
+				sort(a, p+1, hi, offsetsL, offsetsR);
+				hi = p - 1;
+			}
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static int partition(long[] a, int lo, int hi, int[] offsetsL, int[] offsetsR) {
+		long pivot = a[lo];
+		int l = lo + 1;
+		int r = hi;
+		int startL = 0;
+		int startR = 0;
+		int numL = 0;
+		int numR = 0;
+		
+		while (r - l + 1 > 2 * BLOCK) {
+			if (numL == 0) {
+				startL = 0;
+				for (int i = 0; i < BLOCK; i++) {
+					offsetsL[numL] = i;
+					numL += (a[l+i] >= pivot) ? 1 : 0;
+				}
+			}
+			if (numR == 0) {
+				startR = 0;
+				for (int i = 0; i < BLOCK; i++) {
+					offsetsR[numR] = i;
+					numR += (pivot >= a[r-i]) ? 1 : 0;
+				}
+			}
+			
+			int num = Math.min(numL, numR);
+			for (int k = 0; k < num; k++) {
+				swap(a, l + offsetsL[startL+k], r - offsetsR[startR+k]);
+			}
+			numL -= num;
+			numR -= num;
+			startL += num;
+			startR += num;
+			if (numL == 0) l += BLOCK;
+			if (numR == 0) r -= BLOCK;
+		}
+		
+		// less than 2 blocks left (plus whatever is left of a half done block)
+		int i = l;
+		int j = r;
+		while (true) {
+			while (i <= j && a[i] < pivot) i++;
+			while (i <= j && pivot < a[j]) j--;
+			if (i >= j) break;
+			swap(a, i++, j--);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
+	// index of the median of 3 random items
+	private static int pivot(long[] a, int lo, int hi) {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int i = rand.nextInt(lo, hi + 1);
+		int j = rand.nextInt(lo, hi + 1);
+		int k = rand.nextInt(lo, hi + 1);
+		return (a[i] < a[j]) ?
+			((a[j] < a[k]) ? j : (a[i] < a[k]) ? k : i) :
+			((a[k] < a[j]) ? j : (a[k] < a[i]) ? k : i);
+	}
+	
+	private static void sort(double[] a, int lo, int hi, int[] offsetsL, int[] offsetsR) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > InsertionSort.CUTOFF) {
+			swap(a, lo, pivot(a, lo, hi));
+			int p = partition(a, lo, hi, offsetsL, offsetsR);
+			
+			if (p - lo < hi - p) {
+				sort(a, lo, p-1, offsetsL, offsetsR);
+				lo = p + 1;
+			}
+			else {
+				sort(a, p+1, hi, offsetsL, offsetsR);
+				hi = p - 1;
+			}
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static int partition(double[] a, int lo, int hi, int[] offsetsL, int[] offsetsR) {
+		double pivot = a[lo];
+		int l = lo + 1;
+		int r = hi;
+		int startL = 0;
+		int startR = 0;
+		int numL = 0;
+		int numR = 0;
+		
+		while (r - l + 1 > 2 * BLOCK) {
+			if (numL == 0) {
+				startL = 0;
+				for (int i = 0; i < BLOCK; i++) {
+					offsetsL[numL] = i;
+					numL += (a[l+i] >= pivot) ? 1 : 0;
+				}
+			}
+			if (numR == 0) {
+				startR = 0;
+				for (int i = 0; i < BLOCK; i++) {
+					offsetsR[numR] = i;
+					numR += (pivot >= a[r-i]) ? 1 : 0;
+				}
+			}
+			
+			int num = Math.min(numL, numR);
+			for (int k = 0; k < num; k++) {
+				swap(a, l + offsetsL[startL+k], r - offsetsR[startR+k]);
+			}
+			numL -= num;
+			numR -= num;
+			startL += num;
+			startR += num;
+			if (numL == 0) l += BLOCK;
+			if (numR == 0) r -= BLOCK;
+		}
+		
+		// less than 2 blocks left (plus whatever is left of a half done block)
+		int i = l;
+		int j = r;
+		while (true) {
+			while (i <= j && a[i] < pivot) i++;
+			while (i <= j && pivot < a[j]) j--;
+			if (i >= j) break;
+			swap(a, i++, j--);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
+	// index of the median of 3 random items
+	private static int pivot(double[] a, int lo, int hi) {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int i = rand.nextInt(lo, hi + 1);
+		int j = rand.nextInt(lo, hi + 1);
+		int k = rand.nextInt(lo, hi + 1);
+		return (a[i] < a[j]) ?
+			((a[j] < a[k]) ? j : (a[i] < a[k]) ? k : i) :
+			((a[k] < a[j]) ? j : (a[k] < a[i]) ? k : i);
+	}
+	
+	public static void main(String[] args) {
+		int size = 10000000;
+		int[] test = new int[size];
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) test[i] = rand.nextInt();
+		
+		// same input for every partition strategy
+		for (PartitionStrategy strategy : PartitionStrategy.values()) {
+			int[] copy = test.clone();
+			long start = System.currentTimeMillis();
+			QuickSort.sort(copy, strategy);
+			System.out.println(strategy + ": " + (float) (System.currentTimeMillis() - start) / 1000);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+*	Sorts a text file of one record per line that doesn't fit in memory
+*	1. Read lines until the memory budget is used up, sort them with MergeSorter and write
+*		them out as a sorted run in a temp file. Repeat until the input is done
+*	2. k-way merge the runs with a min heap holding the current line of each run
+*		If there are more runs than fanIn, merge fanIn runs at a time into bigger runs first
+*	Stable: lines that are equal keep the order they had in the input
+*	Memory: about memoryBudget for the run being built, plus one buffer per open run while merging
+*/
+class ExternalSort {
+	
+	private static final int BUFFER_SIZE = 1 << 16;   // bytes buffered per open file
+	private static final int LINE_OVERHEAD = 64;      // rough bytes a String costs besides its chars
+	
+	private final long memoryBudget;
+	private final int fanIn;
+	private final Path tempDir;
+	private final MergeSorter sorter = new MergeSorter();
+	
+	/**
+	*	memoryBudget: bytes of lines held in memory for one run
+	*	fanIn: most runs merged at the same time, each needs an open file and a buffer
+	*	tempDir: where runs are spilled
+	*/
+	public ExternalSort(long memoryBudget, int fanIn, Path tempDir) {
+		if (memoryBudget < 1) throw new IllegalArgumentException("memoryBudget must be positive");
+		if (fanIn < 2) throw new IllegalArgumentException("fanIn must be at least 2");
+		if (tempDir == null) throw new NullPointerException("tempDir is null");
+		this.memoryBudget = memoryBudget;
+		this.fanIn = fanIn;
+		this.tempDir = tempDir;
+	}
+	
+	public void sort(Path input, Path output) throws IOException {
+		List<Path> runs = new ArrayList<Path>();
+		List<Path> created = new ArrayList<Path>();  // every temp file, deleted even if the sort fails
+		try {
+			createRuns(input, runs, created);
+			
+			// merge fanIn runs at a time until one merge can write the output
+			while (runs.size() > fanIn) {
+				List<Path> merged = new ArrayList<Path>();
+				for (int i = 0; i < runs.size(); i += fanIn) {
+					List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+					Path run = Files.createTempFile(tempDir, "run", ".txt");
+					merged.add(run);
+					created.add(run);
+					merge(group, run);
+					for (Path p : group) Files.deleteIfExists(p);
+				}
+				runs = merged;
+			}
+			merge(runs, output);
+		}
+		finally {
+			for (Path run : created) Files.deleteIfExists(run);
+		}
+	}
+	
+	/**
+	*	Read input in chunks of about memoryBudget bytes
+	*	Sort each chunk in memory and spill it to its own temp file
+	*/
+	private void createRuns(Path input, List<Path> runs, List<Path> created) throws IOException {
+		try (BufferedReader in = reader(input)) {
+			List<String> chunk = new ArrayList<String>();
+			long used = 0;
+			String line;
+			while ((line = in.readLine()) != null) {
+				chunk.add(line);
+				used += LINE_OVERHEAD + 2L * line.length();
+				if (used >= memoryBudget) {
+					runs.add(spill(chunk, created));
+					chunk.clear();
+					used = 0;
+				}
+			}
+			if (!chunk.isEmpty() || runs.isEmpty()) runs.add(spill(chunk, created));
+		}
+	}
+	
+	private Path spill(List<String> chunk, List<Path> created) throws IOException {
+		String[] lines = chunk.toArray(new String[chunk.size()]);
+		sorter.sort(lines);
+		
+		Path run = Files.createTempFile(tempDir, "run", ".txt");
+		created.add(run);
+		try (BufferedWriter out = writer(run)) {
+			for (String line : lines) {
+				out.write(line);
+				out.newLine();
+			}
+		}
+		return run;
+	}
+	
+	/**
+	*	k-way merge: the heap holds the next line of every run
+	*	Take the smallest, write it, and put that run's next line back in the heap
+	*/
+	private void merge(List<Path> runs, Path output) throws IOException {
+		PriorityQueue<Run> heap = new PriorityQueue<Run>(runs.size());
+		List<Run> open = new ArrayList<Run>();
+		try (BufferedWriter out = writer(output)) {
+			for (int i = 0; i < runs.size(); i++) {
+				Run run = new Run(reader(runs.get(i)), i);
+				open.add(run);
+				if (run.advance()) heap.add(run);
+			}
+			
+			while (!heap.isEmpty()) {
+				Run run = heap.poll();
+				out.write(run.line);
+				out.newLine();
+				if (run.advance()) heap.add(run);
+			}
+		}
+		finally {
+			for (Run run : open) run.in.close();
+		}
+	}
+	
+	private static BufferedReader reader(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8),
+								  BUFFER_SIZE);
+	}
+	
+	private static BufferedWriter writer(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+											   StandardOpenOption.TRUNCATE_EXISTING);
+		return new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8),
+								  BUFFER_SIZE);
+	}
+	
+	/**
+	*	One sorted run being merged and its current line
+	*	Equal lines come out in run order, which keeps the sort stable
+	*/
+	private static class Run implements Comparable<Run> {
+		private final BufferedReader in;
+		private final int index;
+		private String line;
+		
+		Run(BufferedReader in, int index) {
+			this.in = in;
+			this.index = index;
+		}
+		
+		// move to the next line, returns false if the run is done
+		boolean advance() throws IOException {
+			line = in.readLine();
+			return line != null;
+		}
+		
+		public int compareTo(Run other) {
+			int compare = line.compareTo(other.line);
+			if (compare != 0) return compare;
+			return Integer.compare(index, other.index);
+		}
+	}
+	
+	/**
+	*	Usage: java ExternalSort input output [memoryMB] [fanIn]
+	*/
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: java ExternalSort input output [memoryMB] [fanIn]");
+			return;
+		}
+		long memory = (args.length > 2) ? Long.parseLong(args[2]) << 20 : 64L << 20;
+		int fanIn = (args.length > 3) ? Integer.parseInt(args[3]) : 64;
+		Path output = Paths.get(args[1]);
+		Path tempDir = output.toAbsolutePath().getParent();
+		
+		long start = System.currentTimeMillis();
+		new ExternalSort(memory, fanIn, tempDir).sort(Paths.get(args[0]), output);
+		System.out.println((float) (System.currentTimeMillis() - start) / 1000);
+	}
+}
\ No newline at end of file
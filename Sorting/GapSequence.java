@@ -0,0 +1,73 @@
+/**
+*	Gap (increment) sequences for ShellSort, see ShellSort.sort(int[], GapSequence)
+*	KNUTH     - 1, 4, 13, 40, 121 ... (3h+1), starting from the first gap past n/3. O(N^1.5) worst case
+*	CIURA     - 1, 4, 10, 23, 57, 132, 301, 701, 1750 found by experiment, then times 2.25
+*				Fewest compares of the known sequences on random input
+*	TOKUDA    - h = ceil(h'), h' = 2.25h' + 1: 1, 4, 9, 20, 46, 103, 233 ...
+*	SEDGEWICK - Sedgewick 1986: 9(4^k - 2^k) + 1 mixed with 4^(k+2) - 6*2^(k+1) + 1
+*				1, 5, 19, 41, 109, 209, 505, 929 ... O(N^4/3) worst case
+*	Every sequence is worked out once up to Integer.MAX_VALUE, sorting doesn't allocate
+*/
+enum GapSequence {
+	KNUTH(knuth()) {
+		@Override
+		int first(int n) {
+			int k = 0;
+			while (k + 1 < gaps.length && gaps[k] < n / 3) k++;
+			return k;
+		}
+	},
+	CIURA(ciura()),
+	TOKUDA(tokuda()),
+	SEDGEWICK(sedgewick());
+	
+	final int[] gaps;  // increasing, gaps[0] is 1
+	
+	GapSequence(int[] gaps) {
+		this.gaps = gaps;
+	}
+	
+	// index of the first (biggest) gap to sort an array of n items with
+	int first(int n) {
+		int k = 0;
+		while (k + 1 < gaps.length && gaps[k+1] < n) k++;
+		return k;
+	}
+	
+	private static int[] knuth() {
+		int[] gaps = new int[32];
+		int size = 0;
+		for (long h = 1; h <= Integer.MAX_VALUE; h = 3 * h + 1) gaps[size++] = (int) h;
+		return java.util.Arrays.copyOf(gaps, size);
+	}
+	
+	private static int[] ciura() {
+		int[] gaps = new int[64];
+		int[] known = {1, 4, 10, 23, 57, 132, 301, 701, 1750};
+		int size = 0;
+		for (int h : known) gaps[size++] = h;
+		for (long h = (long) (1750 * 2.25); h <= Integer.MAX_VALUE; h = (long) (h * 2.25)) gaps[size++] = (int) h;
+		return java.util.Arrays.copyOf(gaps, size);
+	}
+	
+	private static int[] tokuda() {
+		int[] gaps = new int[64];
+		int size = 0;
+		for (double h = 1; Math.ceil(h) <= Integer.MAX_VALUE; h = 2.25 * h + 1) gaps[size++] = (int) Math.ceil(h);
+		return java.util.Arrays.copyOf(gaps, size);
+	}
+	
+	private static int[] sedgewick() {
+		int[] gaps = new int[64];
+		int size = 0;
+		for (int k = 0; ; k++) {
+			long even = 9 * ((1L << (2 * k)) - (1L << k)) + 1;
+			long odd = (1L << (2 * k + 4)) - 6 * (1L << (k + 1)) + 1;
+			if (even > Integer.MAX_VALUE) break;
+			gaps[size++] = (int) even;
+			if (odd > Integer.MAX_VALUE) break;
+			gaps[size++] = (int) odd;
+		}
+		return java.util.Arrays.copyOf(gaps, size);
+	}
+}
\ No newline at end of file
@@ -1,3 +1,5 @@
+import java.util.Comparator;
+
 /*
 *	In-place, unstable sorting algorithm using Binary Heap data structure
 *	Construct a max heap (for ascending order)
@@ -14,12 +16,19 @@ public class HeapSort extends AbstractSort {
 	*	Sink the new root to its right full place after every swap
 	*/
 	public static <T extends Comparable<T>> void sort(T[] a) {
-		buildHeap(a);
+		sort(a, 0, a.length - 1);
+	}
+	
+	/**
+	*	Heap sort only a[lo] to a[hi]. The heap's 1st item is a[lo]
+	*/
+	static <T extends Comparable<T>> void sort(T[] a, int lo, int hi) {
+		buildHeap(a, lo, hi);
 		
-		int N = a.length;
+		int N = hi - lo + 1;
 		while (N > 1) {
-			swap(a, 0, N-1);  // swap method from AbstractSort works with array 0...N
-			sink(a, 1, --N);  // This algorithm works with array 1...N
+			swap(a, lo, lo+N-1);  // swap method from AbstractSort works with array 0...N
+			sink(a, lo, 1, --N);  // This algorithm works with array 1...N
 		}
 	}
 	
@@ -29,43 +38,389 @@ public class HeapSort extends AbstractSort {
 	*	So from the first parent row at bottom to the root
 	*	Sink() to build the heap from bottom up
 	*/
-	private static <T extends Comparable<T>> void buildHeap(T[] a) {
-		int N = a.length;
-		for (int k = N/2; k >= 1; k--) sink(a, k, N);
+	private static <T extends Comparable<T>> void buildHeap(T[] a, int lo, int hi) {
+		int N = hi - lo + 1;
+		for (int k = N/2; k >= 1; k--) sink(a, lo, k, N);
 	}
 	
 	
 	/**
 	*	Similar to Binary Heap sink method, but with extra parameter N
 	*	because we only want to sort from 1 to N-- each time max is loitered
+	*	The heap starts at a[lo], so heap index k is a[lo+k-1]
 	*/
-	private static <T extends Comparable<T>> void sink(T[] a, int k, int N) {
-		if (N < 1 || N > a.length) throw new IllegalArgumentException();
+	static <T extends Comparable<T>> void sink(T[] a, int lo, int k, int N) {
+		if (N < 1 || lo + N > a.length) throw new IllegalArgumentException();
 		if (N == 1) return;
 		
-		// this array starts with index 0. The Heap algorithm starts with index 1
-		T kth = a[k-1];
+		// this array starts with index lo. The Heap algorithm starts with index 1
+		int base = lo - 1;
+		T kth = a[base+k];
+		
+		while (k <= N / 2) {
+			int big = k * 2;
+			
+			if (big < N && lessThan(a[base+big], a[base+big+1])) big++;
+			if (!lessThan(kth, a[base+big])) break;
+			a[base+k] = a[base+big];
+			if (SortStats.ENABLED) SortStats.move(1);
+			k = big;
+		}
+		a[base+k] = kth;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
+	
+	
+	public static <T> void sort(T[] a, Comparator<? super T> c) {
+		sort(a, 0, a.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		rangeCheck(a.length, from, to);
+		int N = to - from;
+		for (int k = N/2; k >= 1; k--) sink(a, from, k, N, c);
+		
+		while (N > 1) {
+			swap(a, from, from+N-1);
+			sink(a, from, 1, --N, c);
+		}
+	}
+	
+	private static <T> void sink(T[] a, int lo, int k, int N, Comparator<? super T> c) {
+		int base = lo - 1;
+		T kth = a[base+k];
+		
+		while (k <= N / 2) {
+			int big = k * 2;
+			
+			if (big < N && lessThan(c, a[base+big], a[base+big+1])) big++;
+			if (!lessThan(c, kth, a[base+big])) break;
+			a[base+k] = a[base+big];
+			if (SortStats.ENABLED) SortStats.move(1);
+			k = big;
+		}
+		a[base+k] = kth;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		heapSort(a, a.length);
+	}
+	
+	public static void sort(long[] a) {
+		heapSort(a, a.length);
+	}
+	
+	public static void sort(double[] a) {
+		int hi = moveNaNsToEnd(a);
+		heapSort(a, hi + 1);
+		fixZeros(a, hi);
+	}
+	
+	// heap sort the first n items of a
+	private static void heapSort(int[] a, int n) {
+		for (int k = n/2; k >= 1; k--) sink(a, k, n);
+		
+		int N = n;
+		while (N > 1) {
+			swap(a, 0, N-1);
+			sink(a, 1, --N);
+		}
+	}
+	
+	private static void sink(int[] a, int k, int N) {
+		int kth = a[k-1];
+		
+		while (k <= N / 2) {
+			int big = k * 2;
+			
+			if (big < N && a[big-1] < a[big]) big++;
+			if (!(kth < a[big-1])) break;
+			a[k-1] = a[big-1];
+			if (SortStats.ENABLED) SortStats.move(1);
+			k = big;
+		}
+		a[k-1] = kth;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
+	
+	// heap sort the first n items of a
+	private static void heapSort(long[] a, int n) {
+		for (int k = n/2; k >= 1; k--) sink(a, k, n);
+		
+		int N = n;
+		while (N > 1) {
+			swap(a, 0, N-1);
+			sink(a, 1, --N);
+		}
+	}
+	
+	private static void sink(long[] a, int k, int N) {
+		long kth = a[k-1];
+		
+		while (k <= N / 2) {
+			int big = k * 2;
+			
+			if (big < N && a[big-1] < a[big]) big++;
+			if (!(kth < a[big-1])) break;
+			a[k-1] = a[big-1];
+			if (SortStats.ENABLED) SortStats.move(1);
+			k = big;
+		}
+		a[k-1] = kth;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
+	
+	// heap sort the first n items of a
+	private static void heapSort(double[] a, int n) {
+		for (int k = n/2; k >= 1; k--) sink(a, k, n);
+		
+		int N = n;
+		while (N > 1) {
+			swap(a, 0, N-1);
+			sink(a, 1, --N);
+		}
+	}
+	
+	private static void sink(double[] a, int k, int N) {
+		double kth = a[k-1];
 		
 		while (k <= N / 2) {
 			int big = k * 2;
 			
-			if (big < N && less(a, big, big+1)) big++;
-			if (!lessThan(kth, a[big-1])) break;  // different less method to compare 2 T items
+			if (big < N && a[big-1] < a[big]) big++;
+			if (!(kth < a[big-1])) break;
 			a[k-1] = a[big-1];
+			if (SortStats.ENABLED) SortStats.move(1);
 			k = big;
 		}
 		a[k-1] = kth;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
+	
+	/**
+	*	d-ary heap version: every node has arity children instead of 2
+	*	Children of a node are next to each other in memory, so one cache line holds all
+	*	of them (4 or 8 is a good arity)
+	*	The heap is also only log_d(N) levels deep, so there are fewer far jumps per sink
+	*	Sink is Floyd's bottom-up version: move the hole down to a leaf always taking the
+	*	biggest child without comparing it to the sinking item, then climb back up to
+	*	where the item belongs. The item nearly always belongs near the bottom, so the climb
+	*	is short and about half the compares of the normal sink are saved
+	*/
+	public static <T extends Comparable<T>> void sort(T[] a, int arity) {
+		checkArity(arity);
+		int n = a.length;
+		if (n < 2) return;
+		for (int k = (n - 2) / arity; k >= 0; k--) siftDown(a, k, a[k], n, arity);
+		
+		for (int N = n - 1; N > 0; N--) {
+			T last = a[N];
+			a[N] = a[0];
+			if (SortStats.ENABLED) SortStats.move(1);
+			siftDown(a, 0, last, N, arity);
+		}
+	}
+	
+	private static void checkArity(int arity) {
+		if (arity < 2) throw new IllegalArgumentException("arity must be at least 2");
+	}
+	
+	/**
+	*	Put item x in the hole at heap index k of the heap a[0] to a[N-1]
+	*	Heap index starts from 0 here, so the children of i are arity*i+1 to arity*i+arity
+	*/
+	private static <T extends Comparable<T>> void siftDown(T[] a, int k, T x, int N, int arity) {
+		int hole = k;
+		int lastParent = (N < 2) ? -1 : (N - 2) / arity;  // so arity * hole + 1 can't overflow
+		while (hole <= lastParent) {
+			int child = arity * hole + 1;
+			int big = child;
+			T max = a[child];
+			int end = Math.min(child + arity, N);
+			for (int j = child + 1; j < end; j++) {
+				T v = a[j];
+				if (lessThan(max, v)) { big = j; max = v; }
+			}
+			a[hole] = max;
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = big;
+		}
+		
+		// climb back up, but not above k
+		while (hole > k) {
+			int parent = (hole - 1) / arity;
+			if (!lessThan(a[parent], x)) break;
+			a[hole] = a[parent];
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = parent;
+		}
+		a[hole] = x;
+		if (SortStats.ENABLED) SortStats.move(1);
 	}
 	
+	public static void sort(int[] a, int arity) {
+		checkArity(arity);
+		int n = a.length;
+		if (n < 2) return;
+		for (int k = (n - 2) / arity; k >= 0; k--) siftDown(a, k, a[k], n, arity);
+		
+		for (int N = n - 1; N > 0; N--) {
+			int last = a[N];
+			a[N] = a[0];
+			if (SortStats.ENABLED) SortStats.move(1);
+			siftDown(a, 0, last, N, arity);
+		}
+	}
 	
-	private static <T extends Comparable<T>> boolean less(T[] a, int i, int j) {
-		return a[i-1].compareTo(a[j-1]) < 0;
+	private static void siftDown(int[] a, int k, int x, int N, int arity) {
+		int hole = k;
+		int lastParent = (N < 2) ? -1 : (N - 2) / arity;  // so arity * hole + 1 can't overflow
+		while (hole <= lastParent) {
+			int child = arity * hole + 1;
+			int big = child;
+			int max = a[child];
+			int end = Math.min(child + arity, N);
+			for (int j = child + 1; j < end; j++) {
+				int v = a[j];
+				if (max < v) { big = j; max = v; }
+			}
+			a[hole] = max;
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = big;
+		}
+		
+		while (hole > k) {
+			int parent = (hole - 1) / arity;
+			if (!(a[parent] < x)) break;
+			a[hole] = a[parent];
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = parent;
+		}
+		a[hole] = x;
+		if (SortStats.ENABLED) SortStats.move(1);
 	}
 	
+	public static void sort(long[] a, int arity) {
+		checkArity(arity);
+		int n = a.length;
+		if (n < 2) return;
+		for (int k = (n - 2) / arity; k >= 0; k--) siftDown(a, k, a[k], n, arity);
+		
+		for (int N = n - 1; N > 0; N--) {
+			long last = a[N];
+			a[N] = a[0];
+			if (SortStats.ENABLED) SortStats.move(1);
+			siftDown(a, 0, last, N, arity);
+		}
+	}
+	
+	private static void siftDown(long[] a, int k, long x, int N, int arity) {
+		int hole = k;
+		int lastParent = (N < 2) ? -1 : (N - 2) / arity;  // so arity * hole + 1 can't overflow
+		while (hole <= lastParent) {
+			int child = arity * hole + 1;
+			int big = child;
+			long max = a[child];
+			int end = Math.min(child + arity, N);
+			for (int j = child + 1; j < end; j++) {
+				long v = a[j];
+				if (max < v) { big = j; max = v; }
+			}
+			a[hole] = max;
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = big;
+		}
+		
+		while (hole > k) {
+			int parent = (hole - 1) / arity;
+			if (!(a[parent] < x)) break;
+			a[hole] = a[parent];
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = parent;
+		}
+		a[hole] = x;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
+	
+	public static void sort(double[] a, int arity) {
+		checkArity(arity);
+		int hi = moveNaNsToEnd(a);
+		int n = hi + 1;
+		if (n < 2) return;
+		for (int k = (n - 2) / arity; k >= 0; k--) siftDown(a, k, a[k], n, arity);
+		
+		for (int N = n - 1; N > 0; N--) {
+			double last = a[N];
+			a[N] = a[0];
+			if (SortStats.ENABLED) SortStats.move(1);
+			siftDown(a, 0, last, N, arity);
+		}
+		fixZeros(a, hi);
+	}
+	
+	private static void siftDown(double[] a, int k, double x, int N, int arity) {
+		int hole = k;
+		int lastParent = (N < 2) ? -1 : (N - 2) / arity;  // so arity * hole + 1 can't overflow
+		while (hole <= lastParent) {
+			int child = arity * hole + 1;
+			int big = child;
+			double max = a[child];
+			int end = Math.min(child + arity, N);
+			for (int j = child + 1; j < end; j++) {
+				double v = a[j];
+				if (max < v) { big = j; max = v; }
+			}
+			a[hole] = max;
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = big;
+		}
+		
+		while (hole > k) {
+			int parent = (hole - 1) / arity;
+			if (!(a[parent] < x)) break;
+			a[hole] = a[parent];
+			if (SortStats.ENABLED) SortStats.move(1);
+			hole = parent;
+		}
+		a[hole] = x;
+		if (SortStats.ENABLED) SortStats.move(1);
+	}
 	
 	public static void main(String[] args) {
 		Integer[] a = {9, 20, 1, 5, 13, 2, 4, 19};
 		sort(a);
 		for(int i: a) System.out.print(i + " ");
+		System.out.println();
+		
+		int size = 10000000;
+		int[] input = new int[size];
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) input[i] = rand.nextInt();
+		
+		int[] test = input.clone();
+		long start = System.currentTimeMillis();
+		HeapSort.sort(test);
+		System.out.println("binary:    " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		for (int arity : new int[] {4, 8}) {
+			test = input.clone();
+			start = System.currentTimeMillis();
+			HeapSort.sort(test, arity);
+			System.out.println(arity + "-ary:     " + (float) (System.currentTimeMillis() - start) / 1000);
+		}
+		
+		test = input.clone();
+		start = System.currentTimeMillis();
+		QuickSort.sort(test);
+		System.out.println("QuickSort: " + (float) (System.currentTimeMillis() - start) / 1000);
 	}
 }
\ No newline at end of file
@@ -1,17 +1,311 @@
+import java.util.Comparator;
+
 /**
 *	Go through each element in the array
 *	If current element is greater or equal to its left neighbor, break out of innner loop
 *	Else swap with left neighbor and keep looping until first element is compared
 *	Runtime: if list is already sort, inner loop is break everytime, so only outer loop runs
+*	Instead of swapping, the element is held and bigger neighbors are shifted right into its place
+*	binarySort: binary search for where the element goes, then shift with one arraycopy
+*		logN compares per element, best when compares are expensive (objects)
+*	pairSort: insert 2 elements per pass, the bigger first, then the smaller continues from there
+*		so the sorted part is walked about half as often, best for primitives
+*	All 3 are stable. The recursive sorts switch to them for sub arrays under CUTOFF items
 */
 class InsertionSort extends AbstractSort {
 	
+	/**
+	*	Sub arrays with fewer items than this are insertion sorted by QuickSort, Quick3Way,
+	*	MergeSort and QSort2Pivot instead of partitioned or split further
+	*	Set with -Dsort.insertion.cutoff=n, final so the JIT treats it as a constant
+	*/
+	static final int CUTOFF = Math.max(1, Integer.getInteger("sort.insertion.cutoff", 16));
+	
 	public static <T extends Comparable<T>> void sort(T[] array) {
-		for (int i = 0; i  < array.length; i++) {
-			for (int j = i; j > 0; j--) {
-				if (!lessThan(array[j], array[j-1])) break;
-				swap(array, j, j-1);	
+		sort(array, 0, array.length);
+	}
+	
+	/**
+	*	Insertion sort only array[from] to array[to-1], to is exclusive like Arrays.sort
+	*/
+	public static <T extends Comparable<T>> void sort(T[] array, int from, int to) {
+		rangeCheck(array.length, from, to);
+		for (int i = from + 1; i < to; i++) {
+			T x = array[i];
+			int j = i;
+			while (j > from && lessThan(x, array[j-1])) {
+				array[j] = array[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			array[j] = x;
+		}
+	}
+	
+	public static <T extends Comparable<T>> void binarySort(T[] array, int from, int to) {
+		rangeCheck(array.length, from, to);
+		for (int i = from + 1; i < to; i++) {
+			T x = array[i];
+			if (!lessThan(x, array[i-1])) continue;  // already in place, common on presorted input
+			
+			// first index in from..i-1 with an item bigger than x, equal items stay in front
+			int left = from;
+			int right = i - 1;
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+				if (lessThan(x, array[mid])) right = mid;
+				else left = mid + 1;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - left + 1);
+			System.arraycopy(array, left, array, left + 1, i - left);
+			array[left] = x;
+		}
+	}
+	
+	public static <T extends Comparable<T>> void pairSort(T[] array, int from, int to) {
+		rangeCheck(array.length, from, to);
+		int i = from + 1;
+		for (; i < to - 1; i += 2) {
+			// big is the one that goes further right, for equal items that's the later one
+			T big = array[i+1];
+			T small = array[i];
+			if (lessThan(big, small)) {
+				big = array[i];
+				small = array[i+1];
+			}
+			
+			int j = i - 1;
+			while (j >= from && lessThan(big, array[j])) {
+				array[j+2] = array[j];
+				j--;
+			}
+			array[j+2] = big;
+			while (j >= from && lessThan(small, array[j])) {
+				array[j+1] = array[j];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			array[j+1] = small;
+		}
+		
+		// odd number of items, the last one goes in by itself
+		if (i == to - 1) {
+			T x = array[to - 1];
+			int j = i;
+			while (j > from && lessThan(x, array[j-1])) {
+				array[j] = array[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			array[j] = x;
+		}
+	}
+	
+	public static <T> void sort(T[] array, Comparator<? super T> c) {
+		sort(array, 0, array.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] array, int from, int to, Comparator<? super T> c) {
+		rangeCheck(array.length, from, to);
+		for (int i = from + 1; i < to; i++) {
+			T x = array[i];
+			int j = i;
+			while (j > from && lessThan(c, x, array[j-1])) {
+				array[j] = array[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			array[j] = x;
+		}
+	}
+	
+	public static <T> void binarySort(T[] array, int from, int to, Comparator<? super T> c) {
+		rangeCheck(array.length, from, to);
+		for (int i = from + 1; i < to; i++) {
+			T x = array[i];
+			if (!lessThan(c, x, array[i-1])) continue;
+			
+			int left = from;
+			int right = i - 1;
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+				if (lessThan(c, x, array[mid])) right = mid;
+				else left = mid + 1;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - left + 1);
+			System.arraycopy(array, left, array, left + 1, i - left);
+			array[left] = x;
+		}
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		pairSort(a, 0, a.length);
+	}
+	
+	public static void sort(long[] a) {
+		pairSort(a, 0, a.length);
+	}
+	
+	public static void sort(double[] a) {
+		sort(a, 0, a.length);
+	}
+	
+	public static void sort(int[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		for (int i = from + 1; i < to; i++) {
+			int x = a[i];
+			int j = i;
+			while (j > from && x < a[j-1]) {
+				a[j] = a[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j] = x;
+		}
+	}
+	
+	public static void pairSort(int[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		int i = from + 1;
+		for (; i < to - 1; i += 2) {
+			int big = a[i];
+			int small = a[i+1];
+			if (big < small) {
+				big = a[i+1];
+				small = a[i];
+			}
+			
+			int j = i - 1;
+			while (j >= from && big < a[j]) {
+				a[j+2] = a[j];
+				j--;
+			}
+			a[j+2] = big;
+			while (j >= from && small < a[j]) {
+				a[j+1] = a[j];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j+1] = small;
+		}
+		
+		if (i == to - 1) {
+			int x = a[to - 1];
+			int j = i;
+			while (j > from && x < a[j-1]) {
+				a[j] = a[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j] = x;
+		}
+	}
+	
+	public static void sort(long[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		for (int i = from + 1; i < to; i++) {
+			long x = a[i];
+			int j = i;
+			while (j > from && x < a[j-1]) {
+				a[j] = a[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j] = x;
+		}
+	}
+	
+	public static void pairSort(long[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		int i = from + 1;
+		for (; i < to - 1; i += 2) {
+			long big = a[i];
+			long small = a[i+1];
+			if (big < small) {
+				big = a[i+1];
+				small = a[i];
+			}
+			
+			int j = i - 1;
+			while (j >= from && big < a[j]) {
+				a[j+2] = a[j];
+				j--;
+			}
+			a[j+2] = big;
+			while (j >= from && small < a[j]) {
+				a[j+1] = a[j];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j+1] = small;
+		}
+		
+		if (i == to - 1) {
+			long x = a[to - 1];
+			int j = i;
+			while (j > from && x < a[j-1]) {
+				a[j] = a[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j] = x;
+		}
+	}
+	
+	// NaN and -0.0 are put in order inside the range, same as sort(double[])
+	public static void sort(double[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		int hi = moveNaNsToEnd(a, from, to - 1);
+		pairSort(a, from, hi + 1);
+		fixZeros(a, from, hi);
+	}
+	
+	/**
+	*	Kernel for a range without NaN, -0.0 and 0.0 are left mixed since < can't tell them apart
+	*	Callers move NaNs out first and fix the zeros after, sort(double[], from, to) does both
+	*/
+	static void pairSort(double[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		int i = from + 1;
+		for (; i < to - 1; i += 2) {
+			double big = a[i];
+			double small = a[i+1];
+			if (big < small) {
+				big = a[i+1];
+				small = a[i];
+			}
+			
+			int j = i - 1;
+			while (j >= from && big < a[j]) {
+				a[j+2] = a[j];
+				j--;
+			}
+			a[j+2] = big;
+			while (j >= from && small < a[j]) {
+				a[j+1] = a[j];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j+1] = small;
+		}
+		
+		if (i == to - 1) {
+			double x = a[to - 1];
+			int j = i;
+			while (j > from && x < a[j-1]) {
+				a[j] = a[j-1];
+				j--;
 			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j] = x;
 		}
 	}
 	
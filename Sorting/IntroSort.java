@@ -0,0 +1,150 @@
+import java.util.Comparator;
+
+/**
+*	QuickSort that can't go quadratic
+*	Keeps track of the recursion depth. Once it passes 2*log2(N) the pivots have been bad
+*	too many times, so the rest of that sub array is heap sorted instead
+*	Small sub arrays are insertion sorted, and the pivot is the median of 3 (or ninther
+*	for big sub arrays) so sorted and reverse sorted input don't need a shuffle
+*	Runtime: O(NlogN) worst case, same as QuickSort on average
+*/
+class IntroSort extends AbstractSort {
+	
+	private static final int CUTOFF = 16;          // insertion sort below this size
+	private static final int NINTHER_CUTOFF = 128; // ninther pivot above this size
+	
+	public static <T extends Comparable<T>> void sort(T[] a) {
+		if (a.length < 2) return;
+		introSort(a, 0, a.length - 1, 2 * log2(a.length));
+	}
+	
+	public static <T> void sort(T[] a, Comparator<? super T> c) {
+		sort(a, 0, a.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		rangeCheck(a.length, from, to);
+		if (to - from < 2) return;
+		introSort(a, from, to - 1, 2 * log2(to - from), c);
+	}
+	
+	/**
+	*	Recurse into the smaller partition and loop on the bigger one
+	*	so the stack never goes deeper than logN
+	*/
+	private static <T extends Comparable<T>> void introSort(T[] a, int lo, int hi, int depth) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > CUTOFF) {
+			if (depth-- == 0) {
+				HeapSort.sort(a, lo, hi);
+				if (SortStats.ENABLED) SortStats.exit();
+				return;
+			}
+			
+			// move the pivot to a[lo], where partition expects it
+			swap(a, lo, pivot(a, lo, hi));
+			int p = QuickSort.partition(a, lo, hi);
+			
+			if (p - lo < hi - p) {
+				introSort(a, lo, p-1, depth);
+				lo = p + 1;
+			}
+			else {
+				introSort(a, p+1, hi, depth);
+				hi = p - 1;
+			}
+		}
+		InsertionSort.sort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static <T> void introSort(T[] a, int lo, int hi, int depth, Comparator<? super T> c) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > CUTOFF) {
+			if (depth-- == 0) {
+				HeapSort.sort(a, lo, hi + 1, c);
+				if (SortStats.ENABLED) SortStats.exit();
+				return;
+			}
+			
+			swap(a, lo, pivot(a, lo, hi, c));
+			int p = QuickSort.partition(a, lo, hi, c);
+			
+			if (p - lo < hi - p) {
+				introSort(a, lo, p-1, depth, c);
+				lo = p + 1;
+			}
+			else {
+				introSort(a, p+1, hi, depth, c);
+				hi = p - 1;
+			}
+		}
+		InsertionSort.sort(a, lo, hi + 1, c);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// returns index of the median of 3, or of the ninther (median of 3 medians of 3)
+	private static <T extends Comparable<T>> int pivot(T[] a, int lo, int hi) {
+		int n = hi - lo + 1;
+		int mid = lo + n / 2;
+		if (n <= NINTHER_CUTOFF) return median3(a, lo, mid, hi);
+		
+		int eps = n / 8;
+		int m1 = median3(a, lo, lo + eps, lo + eps + eps);
+		int m2 = median3(a, mid - eps, mid, mid + eps);
+		int m3 = median3(a, hi - eps - eps, hi - eps, hi);
+		return median3(a, m1, m2, m3);
+	}
+	
+	private static <T extends Comparable<T>> int median3(T[] a, int i, int j, int k) {
+		return lessThan(a[i], a[j]) ?
+			(lessThan(a[j], a[k]) ? j : lessThan(a[i], a[k]) ? k : i) :
+			(lessThan(a[k], a[j]) ? j : lessThan(a[k], a[i]) ? k : i);
+	}
+	
+	private static <T> int pivot(T[] a, int lo, int hi, Comparator<? super T> c) {
+		int n = hi - lo + 1;
+		int mid = lo + n / 2;
+		if (n <= NINTHER_CUTOFF) return median3(a, lo, mid, hi, c);
+		
+		int eps = n / 8;
+		int m1 = median3(a, lo, lo + eps, lo + eps + eps, c);
+		int m2 = median3(a, mid - eps, mid, mid + eps, c);
+		int m3 = median3(a, hi - eps - eps, hi - eps, hi, c);
+		return median3(a, m1, m2, m3, c);
+	}
+	
+	private static <T> int median3(T[] a, int i, int j, int k, Comparator<? super T> c) {
+		return lessThan(c, a[i], a[j]) ?
+			(lessThan(c, a[j], a[k]) ? j : lessThan(c, a[i], a[k]) ? k : i) :
+			(lessThan(c, a[k], a[j]) ? j : lessThan(c, a[k], a[i]) ? k : i);
+	}
+	
+	// floor of log2(n) for n > 0
+	private static int log2(int n) {
+		return 31 - Integer.numberOfLeadingZeros(n);
+	}
+	
+	public static void main(String[] args) {
+		int size = 10000000;
+		Integer[] test = new Integer[size];
+		
+		// sorted input is the worst case for QSort2Pivot, but not here
+		for (int i = 0; i < size; i++) {
+			test[i] = i;
+		}
+		
+		String[] strings = {"Hi", "my", "name", "is", "Ken", "I'm", "umemployed"};
+		
+		long start = System.currentTimeMillis();
+		IntroSort.sort(test);
+		System.out.println((float) (System.currentTimeMillis() - start) / 1000);
+		
+		IntroSort.sort(strings);
+		IntroSort.print(strings);
+	}
+}
\ No newline at end of file
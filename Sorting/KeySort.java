@@ -0,0 +1,196 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+*	Sort items by a key worked out from each item (Schwartzian transform)
+*	A comparator that computes keys computes 2 of them for every compare, about 2NlogN in all
+*	Here key() is called exactly once per item:
+*	1. keys[i] = key(a[i]) and perm[i] = i
+*	2. Stable merge sort of the (keys, perm) pairs, compares are just < on a long[]
+*		Halves bigger than THRESHOLD are sorted in parallel as ForkJoin tasks, and
+*		each task extracts the keys of its own part too
+*	3. perm[i] is now where the item for position i came from. Move the items by following
+*		the cycles of perm, so a is rearranged in place without a second T[]
+*	Stable: items with equal keys keep their order
+*	Memory: 2 long[] and 2 int[] of N, no matter how big the items are
+*/
+class KeySort extends AbstractSort {
+	
+	private static final int THRESHOLD = 8192;  // smaller ranges are done by one thread
+	
+	public static <T> void sortByLongKey(T[] a, ToLongFunction<? super T> key) {
+		int n = a.length;
+		long[] keys = new long[n];
+		int[] perm = new int[n];
+		if (SortStats.ENABLED) SortStats.allocate(4L * n);
+		ForkJoinPool.commonPool().invoke(new SortTask(keys, perm, new long[n], new int[n], 0, n - 1,
+													  i -> keys[i] = key.applyAsLong(a[i])));
+		permute(a, perm);
+	}
+	
+	/**
+	*	Same order as Double.compare: -0.0 before 0.0 and NaN after everything
+	*/
+	public static <T> void sortByDoubleKey(T[] a, ToDoubleFunction<? super T> key) {
+		int n = a.length;
+		long[] keys = new long[n];
+		int[] perm = new int[n];
+		if (SortStats.ENABLED) SortStats.allocate(4L * n);
+		ForkJoinPool.commonPool().invoke(new SortTask(keys, perm, new long[n], new int[n], 0, n - 1,
+													  i -> keys[i] = sortableBits(key.applyAsDouble(a[i]))));
+		permute(a, perm);
+	}
+	
+	/**
+	*	long that compares with < the way Double.compare orders the doubles
+	*	Negative doubles have the sign bit set and get bigger as their magnitude shrinks,
+	*	so flip all their other bits. All NaNs become the same (biggest) bits
+	*/
+	static long sortableBits(double d) {
+		long bits = Double.doubleToLongBits(d);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+	
+	// extracts the key of a[i] into keys[i]
+	private interface Extract {
+		void key(int i);
+	}
+	
+	private static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final long[] keys;
+		private final int[] perm;
+		private final long[] tempKeys;
+		private final int[] tempPerm;
+		private final int lo;
+		private final int hi;
+		private final Extract extract;
+		private final int depth = SortStats.ENABLED ? SortStats.depth() + 1 : 0;  // one level below its creator
+		
+		SortTask(long[] keys, int[] perm, long[] tempKeys, int[] tempPerm, int lo, int hi, Extract extract) {
+			this.keys = keys;
+			this.perm = perm;
+			this.tempKeys = tempKeys;
+			this.tempPerm = tempPerm;
+			this.lo = lo;
+			this.hi = hi;
+			this.extract = extract;
+		}
+		
+		@Override
+		protected void compute() {
+			int saved = SortStats.ENABLED ? SortStats.resume(depth) : 0;
+			try {
+				if (hi - lo < THRESHOLD) {
+					for (int i = lo; i <= hi; i++) {
+						extract.key(i);
+						perm[i] = i;
+					}
+					mergeSort(keys, perm, tempKeys, tempPerm, lo, hi);
+					return;
+				}
+				
+				int mid = lo + (hi - lo) / 2;
+				invokeAll(new SortTask(keys, perm, tempKeys, tempPerm, lo, mid, extract),
+						  new SortTask(keys, perm, tempKeys, tempPerm, mid+1, hi, extract));
+				if (keys[mid+1] < keys[mid]) merge(keys, perm, tempKeys, tempPerm, lo, mid, hi);
+			}
+			finally {
+				if (SortStats.ENABLED) SortStats.restore(saved);
+			}
+		}
+	}
+	
+	private static void mergeSort(long[] keys, int[] perm, long[] tempKeys, int[] tempPerm, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			insertionSort(keys, perm, lo, hi);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(keys, perm, tempKeys, tempPerm, lo, mid);
+		mergeSort(keys, perm, tempKeys, tempPerm, mid+1, hi);
+		if (keys[mid+1] < keys[mid]) merge(keys, perm, tempKeys, tempPerm, lo, mid, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// every key moves together with its perm entry. On equal keys the left one goes first
+	private static void merge(long[] keys, int[] perm, long[] tempKeys, int[] tempPerm, int lo, int mid, int hi) {
+		if (SortStats.ENABLED) SortStats.move(2L * (hi - lo + 1));
+		System.arraycopy(keys, lo, tempKeys, lo, hi - lo + 1);
+		System.arraycopy(perm, lo, tempPerm, lo, hi - lo + 1);
+		
+		int i = lo;
+		int j = mid + 1;
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid || (j <= hi && tempKeys[j] < tempKeys[i])) {
+				keys[k] = tempKeys[j];
+				perm[k] = tempPerm[j++];
+			}
+			else {
+				keys[k] = tempKeys[i];
+				perm[k] = tempPerm[i++];
+			}
+		}
+	}
+	
+	private static void insertionSort(long[] keys, int[] perm, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			long key = keys[i];
+			int p = perm[i];
+			int j = i;
+			while (j > lo && key < keys[j-1]) {
+				keys[j] = keys[j-1];
+				perm[j] = perm[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			keys[j] = key;
+			perm[j] = p;
+		}
+	}
+	
+	/**
+	*	Put a[perm[i]] at a[i] for every i, one cycle of perm at a time:
+	*	hold the first item of the cycle, pull each next item into the hole it leaves
+	*	and drop the held item in the last hole. perm[i] = i marks i as done
+	*/
+	private static <T> void permute(T[] a, int[] perm) {
+		for (int i = 0; i < a.length; i++) {
+			if (perm[i] == i) continue;
+			T first = a[i];
+			int j = i;
+			int cycle = 1;
+			while (perm[j] != i) {
+				int next = perm[j];
+				a[j] = a[next];
+				perm[j] = j;
+				j = next;
+				cycle++;
+			}
+			a[j] = first;
+			if (SortStats.ENABLED) SortStats.move(cycle);
+			perm[j] = j;
+		}
+	}
+	
+	public static void main(String[] args) {
+		int size = 2000000;
+		java.util.Random rand = new java.util.Random();
+		double[][] points = new double[size][];
+		for (int i = 0; i < size; i++) points[i] = new double[] {rand.nextDouble(), rand.nextDouble()};
+		double[][] copy = points.clone();
+		
+		// sort points by angle around the origin, a key that costs a few ns to compute
+		long start = System.currentTimeMillis();
+		KeySort.sortByDoubleKey(points, p -> Math.atan2(p[1], p[0]));
+		System.out.println("sortByDoubleKey: " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		MergeSort.sort(copy, java.util.Comparator.comparingDouble((double[] p) -> Math.atan2(p[1], p[0])));
+		System.out.println("comparator:      " + (float) (System.currentTimeMillis() - start) / 1000);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+/**
+*	Least significant digit radix sort for int[] and long[]
+*	Sorts by one 8 bit digit at a time, from the lowest byte to the highest, with
+*	key indexed counting. Each pass is stable, so after the last pass the keys are in order
+*	The top byte has its sign bit flipped so negative numbers come before positive ones
+*	Passes where every key has the same digit are skipped
+*	Runtime: O(N) - 4 passes for int, 8 for long, no compares at all
+*		needs an aux array of N and one count array of R+1 per thread, reused by every pass and call
+*/
+class LSDRadixSort extends AbstractSort {
+	
+	private static final int BITS = 8;
+	private static final int R = 1 << BITS;   // number of different digits
+	private static final int MASK = R - 1;
+	
+	// SampleSort radix sorts its buckets on many threads at once, so each thread has its own
+	private static final ThreadLocal<int[]> counts = ThreadLocal.withInitial(() -> new int[R + 1]);
+	
+	public static void sort(int[] a) {
+		if (SortStats.ENABLED) SortStats.allocate(a.length);
+		sort(a, 0, a.length - 1, new int[a.length]);
+	}
+	
+	public static void sort(long[] a) {
+		if (SortStats.ENABLED) SortStats.allocate(a.length);
+		sort(a, 0, a.length - 1, new long[a.length]);
+	}
+	
+	/**
+	*	Sort a[lo] to a[hi] using aux[lo] to aux[hi] as scratch
+	*	Passing in aux lets callers reuse one buffer for many sorts
+	*/
+	static void sort(int[] a, int lo, int hi, int[] aux) {
+		int n = hi - lo + 1;
+		if (n < 2) return;
+		
+		int[] count = counts.get();
+		int[] from = a;
+		int[] to = aux;
+		for (int shift = 0; shift < 32; shift += BITS) {
+			int flip = (shift + BITS == 32) ? R >> 1 : 0;  // sign bit of the top byte
+			
+			java.util.Arrays.fill(count, 0);
+			for (int i = lo; i <= hi; i++) count[(((from[i] >>> shift) & MASK) ^ flip) + 1]++;
+			
+			// every key has the same digit, this pass wouldn't move anything
+			if (count[(((from[lo] >>> shift) & MASK) ^ flip) + 1] == n) continue;
+			
+			// count[d] becomes the first index of digit d
+			count[0] = lo;
+			for (int r = 0; r < R; r++) count[r+1] += count[r];
+			if (SortStats.ENABLED) SortStats.move(n);
+			for (int i = lo; i <= hi; i++) to[count[((from[i] >>> shift) & MASK) ^ flip]++] = from[i];
+			
+			int[] temp = from;
+			from = to;
+			to = temp;
+		}
+		
+		// an odd number of passes moved the keys, so the sorted keys are in aux
+		if (from != a) {
+			if (SortStats.ENABLED) SortStats.move(n);
+			System.arraycopy(from, lo, a, lo, n);
+		}
+	}
+	
+	static void sort(long[] a, int lo, int hi, long[] aux) {
+		int n = hi - lo + 1;
+		if (n < 2) return;
+		
+		int[] count = counts.get();
+		long[] from = a;
+		long[] to = aux;
+		for (int shift = 0; shift < 64; shift += BITS) {
+			int flip = (shift + BITS == 64) ? R >> 1 : 0;
+			
+			java.util.Arrays.fill(count, 0);
+			for (int i = lo; i <= hi; i++) count[(((int) (from[i] >>> shift) & MASK) ^ flip) + 1]++;
+			
+			if (count[(((int) (from[lo] >>> shift) & MASK) ^ flip) + 1] == n) continue;
+			
+			count[0] = lo;
+			for (int r = 0; r < R; r++) count[r+1] += count[r];
+			if (SortStats.ENABLED) SortStats.move(n);
+			for (int i = lo; i <= hi; i++) to[count[((int) (from[i] >>> shift) & MASK) ^ flip]++] = from[i];
+			
+			long[] temp = from;
+			from = to;
+			to = temp;
+		}
+		
+		if (from != a) {
+			if (SortStats.ENABLED) SortStats.move(n);
+			System.arraycopy(from, lo, a, lo, n);
+		}
+	}
+	
+	public static void main(String[] args) {
+		int size = 10000000;
+		int[] test = new int[size];
+		int[] copy = new int[size];
+		
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) {
+			test[i] = rand.nextInt();
+			copy[i] = test[i];
+		}
+		
+		long start = System.currentTimeMillis();
+		LSDRadixSort.sort(test);
+		System.out.println("LSDRadixSort: " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		QuickSort.sort(copy);
+		System.out.println("QuickSort:    " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		long[] longs = {5L, -1L, Long.MIN_VALUE, 0L, Long.MAX_VALUE, -300L, 42L};
+		LSDRadixSort.sort(longs);
+		System.out.println(java.util.Arrays.toString(longs));
+	}
+}
\ No newline at end of file
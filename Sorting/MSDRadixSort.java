@@ -0,0 +1,102 @@
+/**
+*	3-way radix quicksort for strings (MSD radix sort that partitions like Quick3Way)
+*	Partition on the d-th character of a pivot string into less, equal and greater,
+*	then the equal part only needs to be sorted from character d+1
+*	Above the cutoff strings are never compared in full, each character is looked at about once per
+*	partition level, so long common prefixes (ids, urls) don't get compared over and over
+*	Sub arrays of CUTOFF or less are finished with an insertion sort that compares from character d,
+*	the strings in them all have the same first d characters
+*	Runtime: about 2NlnN character compares for random strings, linear in the number
+*		of characters that have to be looked at to tell the keys apart
+*/
+class MSDRadixSort extends AbstractSort {
+	
+	private static final int CUTOFF = 15;
+	
+	public static void sort(String[] a) {
+		shuffle(a);
+		sort(a, 0, a.length - 1, 0);
+	}
+	
+	private static void sort(String[] a, int lo, int hi, int d) {
+		if (hi <= lo + CUTOFF) {
+			insertion(a, lo, hi, d);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		
+		int lt = lo;
+		int gt = hi;
+		int v = charAt(a[lo], d);
+		int i = lo + 1;
+		while (i <= gt) {
+			int t = charAt(a[i], d);
+			if (t < v) swap(a, lt++, i++);
+			else if (t > v) swap(a, gt--, i);
+			else i++;
+		}
+		
+		sort(a, lo, lt-1, d);
+		// strings that ended at d (v == -1) are all equal, nothing left to sort
+		if (v >= 0) sort(a, lt, gt, d+1);
+		sort(a, gt+1, hi, d);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// insertion sort a[lo] to a[hi], which only differ from character d on
+	private static void insertion(String[] a, int lo, int hi, int d) {
+		for (int i = lo + 1; i <= hi; i++) {
+			String x = a[i];
+			int j = i;
+			while (j > lo && less(x, a[j-1], d)) {
+				a[j] = a[j-1];
+				j--;
+			}
+			if (SortStats.ENABLED) SortStats.move(i - j + 1);
+			a[j] = x;
+		}
+	}
+	
+	// same as v.compareTo(w) < 0 when the first d characters are equal
+	private static boolean less(String v, String w, int d) {
+		if (SortStats.ENABLED) SortStats.compare();
+		int n = Math.min(v.length(), w.length());
+		for (int i = d; i < n; i++) {
+			char c = v.charAt(i);
+			char e = w.charAt(i);
+			if (c != e) return c < e;
+		}
+		return v.length() < w.length();
+	}
+	
+	// returns d-th character of s, or -1 if s has less than d+1 characters
+	private static int charAt(String s, int d) {
+		if (d < s.length()) return s.charAt(d);
+		return -1;
+	}
+	
+	public static void main(String[] args) {
+		int size = 1000000;
+		String[] test = new String[size];
+		String[] copy = new String[size];
+		
+		// fixed width ids with a long common prefix
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) {
+			test[i] = String.format("user-%012d", rand.nextInt(size * 10));
+			copy[i] = test[i];
+		}
+		
+		long start = System.currentTimeMillis();
+		MSDRadixSort.sort(test);
+		System.out.println("MSDRadixSort: " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		Quick3Way.sort(copy);
+		System.out.println("Quick3Way:    " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		String[] sarr = {"Hello", "World", "From", "Java", "Rookie", "Hell", "", "Worlds"};
+		MSDRadixSort.sort(sarr);
+		print(sarr);
+	}
+}
\ No newline at end of file
@@ -1,3 +1,7 @@
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 class MergeSort extends AbstractSort {
 	
 	/**
@@ -6,20 +10,87 @@ class MergeSort extends AbstractSort {
 	public static <T extends Comparable<T>> void sort(T[] arr) {
 		
 		T[] temp = (T[]) new Comparable[arr.length];
+		if (SortStats.ENABLED) SortStats.allocate(arr.length);
 		mergeSort(arr, temp, 0, arr.length - 1);
 	}
 	
+	public static <T> void sort(T[] arr, Comparator<? super T> c) {
+		sort(arr, 0, arr.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*	temp only holds from to to-1, so temp index is array index - from
+	*/
+	public static <T> void sort(T[] arr, int from, int to, Comparator<? super T> c) {
+		rangeCheck(arr.length, from, to);
+		
+		T[] temp = (T[]) new Object[to - from];
+		if (SortStats.ENABLED) SortStats.allocate(to - from);
+		mergeSort(arr, temp, from, from, to - 1, c);
+	}
+	
+	private static <T> void mergeSort(T[] arr, T[] temp, int off, int lo, int hi, Comparator<? super T> c) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.binarySort(arr, lo, hi + 1, c);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(arr, temp, off, lo, mid, c);
+		mergeSort(arr, temp, off, mid+1, hi, c);
+		merge(arr, temp, off, lo, mid, hi, c);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static <T> void merge(T[] arr, T[] temp, int off, int lo, int mid, int hi, Comparator<? super T> c) {
+		if (SortStats.ENABLED) SortStats.move(2L * (hi - lo + 1));
+		System.arraycopy(arr, lo, temp, lo - off, hi - lo + 1);
+		
+		int i = lo - off;
+		int j = mid + 1 - off;
+		int iEnd = mid - off;
+		int jEnd = hi - off;
+		int k = lo;
+		while (i <= iEnd && j <= jEnd) {
+			arr[k++] = (lessThan(c, temp[j], temp[i])) ? temp[j++] : temp[i++];
+		}
+		
+		while (i <= iEnd) arr[k++] = temp[i++];
+		while (j <= jEnd) arr[k++] = temp[j++];
+	}
+	
+	/**
+	*	Same merge sort but the 2 halves are sorted in parallel as ForkJoin tasks
+	*	All tasks share one temp array since each task only touches its own lo..hi range
+	*	Ranges with fewer than threshold elements are sorted sequentially by mergeSort()
+	*	Output is the same as sort() since the same stable merge() is used
+	*/
+	public static <T extends Comparable<T>> void parallelSort(T[] arr, int threshold) {
+		if (threshold < 1) throw new IllegalArgumentException("threshold must be positive");
+		
+		T[] temp = (T[]) new Comparable[arr.length];
+		if (SortStats.ENABLED) SortStats.allocate(arr.length);
+		ForkJoinPool.commonPool().invoke(new MergeTask<T>(arr, temp, 0, arr.length - 1, threshold));
+	}
+	
 	/**
 	*	Keep dividing array into 2 halves until array has single element
 	*	Merge all divided array back together from smallest to largest
 	*/
 	private static <T extends Comparable<T>> void mergeSort(T[] arr, T[] temp, int lo, int hi) {
 		
-		if (hi <= lo) return;
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.binarySort(arr, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
 		int mid = lo + (hi - lo) / 2;
 		mergeSort(arr, temp, lo, mid);
 		mergeSort(arr, temp, mid+1, hi);
 		merge(arr, temp, lo, mid, hi);		
+		if (SortStats.ENABLED) SortStats.exit();
 	}
 	
 	/**
@@ -30,6 +101,7 @@ class MergeSort extends AbstractSort {
 		
 		assert isSorted(arr, lo, mid);
 		assert isSorted(arr, mid+1, hi);
+		if (SortStats.ENABLED) SortStats.move(2L * (hi - lo + 1));
 		
 		for (int i = lo; i <= hi; i++) 
 			temp[i] = arr[i];
@@ -38,7 +110,7 @@ class MergeSort extends AbstractSort {
 		int j = mid + 1;
 		int k = lo;
 		while (i <= mid && j <= hi) {
-			arr[k++] = (lessThan(temp[i], temp[j])) ? temp[i++] : temp[j++];
+			arr[k++] = (lessThan(temp[j], temp[i])) ? temp[j++] : temp[i++];
 		}
 		
 		while (i <= mid) arr[k++] = temp[i++];
@@ -47,7 +119,155 @@ class MergeSort extends AbstractSort {
 		assert isSorted(arr, lo, hi);	
 	}
 	
+	/**
+	*	Sort lo to hi by forking both halves, then merge them once both are done
+	*/
+	private static class MergeTask<T extends Comparable<T>> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final T[] arr;
+		private final T[] temp;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+		private final int depth = SortStats.ENABLED ? SortStats.depth() + 1 : 0;  // one level below its creator
+		
+		MergeTask(T[] arr, T[] temp, int lo, int hi, int threshold) {
+			this.arr = arr;
+			this.temp = temp;
+			this.lo = lo;
+			this.hi = hi;
+			this.threshold = threshold;
+		}
+		
+		@Override
+		protected void compute() {
+			int saved = SortStats.ENABLED ? SortStats.resume(depth) : 0;
+			try {
+				if (hi - lo < threshold) {
+					mergeSort(arr, temp, lo, hi);
+					return;
+				}
+				
+				int mid = lo + (hi - lo) / 2;
+				invokeAll(new MergeTask<T>(arr, temp, lo, mid, threshold),
+						  new MergeTask<T>(arr, temp, mid+1, hi, threshold));
+				merge(arr, temp, lo, mid, hi);
+			}
+			finally {
+				if (SortStats.ENABLED) SortStats.restore(saved);
+			}
+		}
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		if (SortStats.ENABLED) SortStats.allocate(a.length);
+		mergeSort(a, new int[a.length], 0, a.length - 1);
+	}
+	
+	public static void sort(long[] a) {
+		if (SortStats.ENABLED) SortStats.allocate(a.length);
+		mergeSort(a, new long[a.length], 0, a.length - 1);
+	}
+	
+	public static void sort(double[] a) {
+		int hi = moveNaNsToEnd(a);
+		if (SortStats.ENABLED) SortStats.allocate(a.length);
+		mergeSort(a, new double[a.length], 0, hi);
+		fixZeros(a, hi);
+	}
+	
+	private static void mergeSort(int[] arr, int[] temp, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(arr, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(arr, temp, lo, mid);
+		mergeSort(arr, temp, mid+1, hi);
+		merge(arr, temp, lo, mid, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static void merge(int[] arr, int[] temp, int lo, int mid, int hi) {
+		if (SortStats.ENABLED) SortStats.move(2L * (hi - lo + 1));
+		for (int i = lo; i <= hi; i++) 
+			temp[i] = arr[i];
 		
+		int i = lo;
+		int j = mid + 1;
+		int k = lo;
+		while (i <= mid && j <= hi) {
+			arr[k++] = (temp[j] < temp[i]) ? temp[j++] : temp[i++];
+		}
+		
+		while (i <= mid) arr[k++] = temp[i++];
+		while (j <= hi) arr[k++] = temp[j++];
+	}
+	
+	private static void mergeSort(long[] arr, long[] temp, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(arr, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(arr, temp, lo, mid);
+		mergeSort(arr, temp, mid+1, hi);
+		merge(arr, temp, lo, mid, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static void merge(long[] arr, long[] temp, int lo, int mid, int hi) {
+		if (SortStats.ENABLED) SortStats.move(2L * (hi - lo + 1));
+		for (int i = lo; i <= hi; i++) 
+			temp[i] = arr[i];
+		
+		int i = lo;
+		int j = mid + 1;
+		int k = lo;
+		while (i <= mid && j <= hi) {
+			arr[k++] = (temp[j] < temp[i]) ? temp[j++] : temp[i++];
+		}
+		
+		while (i <= mid) arr[k++] = temp[i++];
+		while (j <= hi) arr[k++] = temp[j++];
+	}
+	
+	private static void mergeSort(double[] arr, double[] temp, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(arr, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(arr, temp, lo, mid);
+		mergeSort(arr, temp, mid+1, hi);
+		merge(arr, temp, lo, mid, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static void merge(double[] arr, double[] temp, int lo, int mid, int hi) {
+		if (SortStats.ENABLED) SortStats.move(2L * (hi - lo + 1));
+		for (int i = lo; i <= hi; i++) 
+			temp[i] = arr[i];
+		
+		int i = lo;
+		int j = mid + 1;
+		int k = lo;
+		while (i <= mid && j <= hi) {
+			arr[k++] = (temp[j] < temp[i]) ? temp[j++] : temp[i++];
+		}
+		
+		while (i <= mid) arr[k++] = temp[i++];
+		while (j <= hi) arr[k++] = temp[j++];
+	}
+	
 	protected static <T extends Comparable<T>> boolean isSorted(T[] arr, int begin, int end) {
 		
 		for (int i = begin; i < end; i++) {
@@ -65,7 +285,7 @@ class MergeSort extends AbstractSort {
 		}
 		
 		long start = System.currentTimeMillis();
-		ShellSort.sort(test);
+		MergeSort.sort(test);
 		System.out.println((float) (System.currentTimeMillis() - start) / 1000);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+import java.util.Comparator;
+
+/**
+*	MergeSort that keeps its temp array between calls instead of allocating one every sort
+*	Only the left half of each merge is copied out, so the buffer is half the array length
+*	The buffer grows when a bigger array comes in and is kept for the next call
+*	Not thread safe: use one MergeSorter per thread, forCurrentThread() keeps one for each thread
+*/
+class MergeSorter extends AbstractSort {
+	
+	private static final ThreadLocal<MergeSorter> perThread = ThreadLocal.withInitial(MergeSorter::new);
+	
+	private Object[] buffer;
+	
+	public MergeSorter() {
+		this(0);
+	}
+	
+	// capacity is the length of the biggest array expected
+	public MergeSorter(int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException("negative capacity");
+		buffer = new Object[(capacity + 1) / 2];
+	}
+	
+	/**
+	*	Use the caller's buffer as temp. Sorting an array longer than 2 * buffer.length
+	*	replaces it with a bigger one
+	*/
+	public MergeSorter(Object[] buffer) {
+		if (buffer == null) throw new NullPointerException("buffer is null");
+		this.buffer = buffer;
+	}
+	
+	// MergeSorter owned by the calling thread
+	public static MergeSorter forCurrentThread() {
+		return perThread.get();
+	}
+	
+	public <T extends Comparable<T>> void sort(T[] a) {
+		mergeSort(a, buffer((a.length + 1) / 2), 0, a.length - 1);
+		clear(a.length);
+	}
+	
+	public <T> void sort(T[] a, Comparator<? super T> c) {
+		mergeSort(a, buffer((a.length + 1) / 2), 0, a.length - 1, c);
+		clear(a.length);
+	}
+	
+	// drop the buffer, e.g. after sorting one unusually big array
+	public void release() {
+		buffer = new Object[0];
+	}
+	
+	/**
+	*	returns buffer with at least length n. Grows by doubling so a slowly growing
+	*	batch size doesn't reallocate every call
+	*/
+	private Object[] buffer(int n) {
+		if (buffer.length < n) {
+			buffer = new Object[Math.max(n, 2 * buffer.length)];
+			if (SortStats.ENABLED) SortStats.allocate(buffer.length);
+		}
+		return buffer;
+	}
+	
+	// don't let the buffer hold on to the sorted items until the next call
+	private void clear(int n) {
+		java.util.Arrays.fill(buffer, 0, (n + 1) / 2, null);
+	}
+	
+	private static <T extends Comparable<T>> void mergeSort(T[] a, Object[] temp, int lo, int hi) {
+		if (hi <= lo) return;
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(a, temp, lo, mid);
+		mergeSort(a, temp, mid+1, hi);
+		
+		// halves are already in order, nothing to merge
+		if (!lessThan(a[mid+1], a[mid])) return;
+		merge(a, temp, lo, mid, hi);
+	}
+	
+	/**
+	*	Copy only lo to mid into temp[0...], then merge it with mid+1 to hi which stays in a
+	*	k never passes j, so the right half isn't overwritten before it's read
+	*	Once the left half runs out, the rest of the right half is already in place
+	*/
+	private static <T extends Comparable<T>> void merge(T[] a, Object[] temp, int lo, int mid, int hi) {
+		int n = mid - lo + 1;
+		System.arraycopy(a, lo, temp, 0, n);
+		
+		int i = 0;
+		int j = mid + 1;
+		int k = lo;
+		while (i < n && j <= hi) {
+			T left = (T) temp[i];
+			if (lessThan(a[j], left)) a[k++] = a[j++];
+			else { a[k++] = left; i++; }
+		}
+		while (i < n) a[k++] = (T) temp[i++];
+		if (SortStats.ENABLED) SortStats.move(n + (k - lo));  // left half to temp, then lo to k-1 written
+	}
+	
+	private static <T> void mergeSort(T[] a, Object[] temp, int lo, int hi, Comparator<? super T> c) {
+		if (hi <= lo) return;
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(a, temp, lo, mid, c);
+		mergeSort(a, temp, mid+1, hi, c);
+		
+		if (!lessThan(c, a[mid+1], a[mid])) return;
+		merge(a, temp, lo, mid, hi, c);
+	}
+	
+	private static <T> void merge(T[] a, Object[] temp, int lo, int mid, int hi, Comparator<? super T> c) {
+		int n = mid - lo + 1;
+		System.arraycopy(a, lo, temp, 0, n);
+		
+		int i = 0;
+		int j = mid + 1;
+		int k = lo;
+		while (i < n && j <= hi) {
+			T left = (T) temp[i];
+			if (lessThan(c, a[j], left)) a[k++] = a[j++];
+			else { a[k++] = left; i++; }
+		}
+		while (i < n) a[k++] = (T) temp[i++];
+		if (SortStats.ENABLED) SortStats.move(n + (k - lo));  // left half to temp, then lo to k-1 written
+	}
+	
+	public static void main(String[] args) {
+		int batches = 1000;
+		int size = 10000;
+		java.util.Random rand = new java.util.Random();
+		MergeSorter sorter = new MergeSorter(size);
+		Integer[] batch = new Integer[size];
+		
+		long start = System.currentTimeMillis();
+		for (int b = 0; b < batches; b++) {
+			for (int i = 0; i < size; i++) batch[i] = rand.nextInt();
+			sorter.sort(batch);
+		}
+		System.out.println((float) (System.currentTimeMillis() - start) / 1000);
+		
+		String[] sarr = {"Hello", "World", "From", "Java", "Rookie"};
+		MergeSorter.forCurrentThread().sort(sarr);
+		print(sarr);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,487 @@
+import java.util.Comparator;
+
+/**
+*	Stable merge sort that merges the runs already in the input instead of always
+*	splitting in half (TimSort)
+*	Finds ascending runs (and strictly descending runs, which are reversed in place),
+*	runs shorter than minRun are extended to minRun with binary insertion sort
+*	Runs are pushed on a stack and merged so their lengths stay balanced
+*	A merge only copies the shorter run to temp, and switches to galloping (exponential
+*	search) when one run keeps winning, so long already ordered stretches are moved in bulk
+*	Runtime: O(N) compares if array is already sorted or reverse sorted, O(NlogN) worst case
+*/
+class NaturalMergeSort extends AbstractSort {
+	
+	private static final int MIN_MERGE = 32;   // arrays shorter than this are only binary insertion sorted
+	private static final int MIN_GALLOP = 7;   // wins in a row before switching to galloping
+	private static final int MAX_RUNS = 49;    // enough for any int length since run lengths grow like fibonacci
+	
+	public static <T extends Comparable<T>> void sort(T[] a) {
+		sort(a, 0, a.length, Comparator.<T>naturalOrder());
+	}
+	
+	public static <T> void sort(T[] a, Comparator<? super T> c) {
+		sort(a, 0, a.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		rangeCheck(a.length, from, to);
+		int n = to - from;
+		if (n < 2) return;
+		
+		if (n < MIN_MERGE) {
+			int runLen = countRunAndMakeAscending(a, from, to, c);
+			binaryInsertionSort(a, from, to, from + runLen, c);
+			return;
+		}
+		
+		Merger<T> merger = new Merger<T>(a, n, c);
+		int minRun = minRunLength(n);
+		int lo = from;
+		int remaining = n;
+		while (remaining != 0) {
+			int runLen = countRunAndMakeAscending(a, lo, to, c);
+			
+			// extend short runs to minRun
+			if (runLen < minRun) {
+				int force = Math.min(remaining, minRun);
+				binaryInsertionSort(a, lo, lo + force, lo + runLen, c);
+				runLen = force;
+			}
+			
+			merger.pushRun(lo, runLen);
+			merger.mergeCollapse();
+			
+			lo += runLen;
+			remaining -= runLen;
+		}
+		merger.mergeForceCollapse();
+	}
+	
+	/**
+	*	returns the length of the run starting at lo (hi is exclusive)
+	*	A strictly descending run is reversed. Equal items would swap order if a
+	*	non-strict descending run was reversed, so stability needs the strict check
+	*/
+	private static <T> int countRunAndMakeAscending(T[] a, int lo, int hi, Comparator<? super T> c) {
+		int runHi = lo + 1;
+		if (runHi == hi) return 1;
+		
+		if (lessThan(c, a[runHi++], a[lo])) {
+			while (runHi < hi && lessThan(c, a[runHi], a[runHi-1])) runHi++;
+			reverse(a, lo, runHi - 1);
+		}
+		else {
+			while (runHi < hi && !lessThan(c, a[runHi], a[runHi-1])) runHi++;
+		}
+		return runHi - lo;
+	}
+	
+	private static void reverse(Object[] a, int lo, int hi) {
+		while (lo < hi) swap(a, lo++, hi--);
+	}
+	
+	/**
+	*	Insertion sort a[lo] to a[hi-1] where a[lo] to a[start-1] are already sorted
+	*	Binary search for the insertion point so it's logN compares per item
+	*	Searching for the first item greater than pivot keeps equal items in order
+	*/
+	private static <T> void binaryInsertionSort(T[] a, int lo, int hi, int start, Comparator<? super T> c) {
+		for (; start < hi; start++) {
+			T pivot = a[start];
+			int left = lo;
+			int right = start;
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+				if (lessThan(c, pivot, a[mid])) right = mid;
+				else left = mid + 1;
+			}
+			if (SortStats.ENABLED) SortStats.move(start - left + 1);
+			System.arraycopy(a, left, a, left + 1, start - left);
+			a[left] = pivot;
+		}
+	}
+	
+	/**
+	*	minRun is between MIN_MERGE/2 and MIN_MERGE so that n/minRun is a power of 2
+	*	or just under it, which keeps the final merges balanced
+	*/
+	private static int minRunLength(int n) {
+		int r = 0;
+		while (n >= MIN_MERGE) {
+			r |= (n & 1);
+			n >>= 1;
+		}
+		return n + r;
+	}
+	
+	/**
+	*	returns number of items in arr[base] to arr[base+len-1] that are less than key
+	*	Gallop from hint by 1, 3, 7, 15... then binary search the last gap
+	*/
+	private static <T> int gallopLeft(T key, T[] arr, int base, int len, int hint, Comparator<? super T> c) {
+		int lastOfs = 0;
+		int ofs = 1;
+		if (lessThan(c, arr[base+hint], key)) {
+			// gallop right until arr[hint+lastOfs] < key <= arr[hint+ofs]
+			int maxOfs = len - hint;
+			while (ofs < maxOfs && lessThan(c, arr[base+hint+ofs], key)) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) ofs = maxOfs;  // int overflow
+			}
+			if (ofs > maxOfs) ofs = maxOfs;
+			lastOfs += hint;
+			ofs += hint;
+		}
+		else {
+			// gallop left until arr[hint-ofs] < key <= arr[hint-lastOfs]
+			int maxOfs = hint + 1;
+			while (ofs < maxOfs && !lessThan(c, arr[base+hint-ofs], key)) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) ofs = maxOfs;
+			}
+			if (ofs > maxOfs) ofs = maxOfs;
+			int tmp = lastOfs;
+			lastOfs = hint - ofs;
+			ofs = hint - tmp;
+		}
+		
+		// arr[lastOfs] < key <= arr[ofs], binary search in between
+		lastOfs++;
+		while (lastOfs < ofs) {
+			int m = lastOfs + ((ofs - lastOfs) >>> 1);
+			if (lessThan(c, arr[base+m], key)) lastOfs = m + 1;
+			else ofs = m;
+		}
+		return ofs;
+	}
+	
+	/**
+	*	returns number of items in arr[base] to arr[base+len-1] that are less than or equal to key
+	*	Same as gallopLeft, but items equal to key are counted so they stay in front of key
+	*/
+	private static <T> int gallopRight(T key, T[] arr, int base, int len, int hint, Comparator<? super T> c) {
+		int lastOfs = 0;
+		int ofs = 1;
+		if (lessThan(c, key, arr[base+hint])) {
+			// gallop left until arr[hint-ofs] <= key < arr[hint-lastOfs]
+			int maxOfs = hint + 1;
+			while (ofs < maxOfs && lessThan(c, key, arr[base+hint-ofs])) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) ofs = maxOfs;
+			}
+			if (ofs > maxOfs) ofs = maxOfs;
+			int tmp = lastOfs;
+			lastOfs = hint - ofs;
+			ofs = hint - tmp;
+		}
+		else {
+			// gallop right until arr[hint+lastOfs] <= key < arr[hint+ofs]
+			int maxOfs = len - hint;
+			while (ofs < maxOfs && !lessThan(c, key, arr[base+hint+ofs])) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) ofs = maxOfs;
+			}
+			if (ofs > maxOfs) ofs = maxOfs;
+			lastOfs += hint;
+			ofs += hint;
+		}
+		
+		// arr[lastOfs] <= key < arr[ofs], binary search in between
+		lastOfs++;
+		while (lastOfs < ofs) {
+			int m = lastOfs + ((ofs - lastOfs) >>> 1);
+			if (lessThan(c, key, arr[base+m])) ofs = m;
+			else lastOfs = m + 1;
+		}
+		return ofs;
+	}
+	
+	/**
+	*	Stack of pending runs and the temp array for one sort() call
+	*/
+	private static class Merger<T> {
+		private final T[] a;
+		private final Comparator<? super T> c;
+		private T[] temp;
+		private final int n;
+		private int minGallop = MIN_GALLOP;
+		
+		private final int[] runBase = new int[MAX_RUNS];
+		private final int[] runLen = new int[MAX_RUNS];
+		private int stackSize = 0;
+		
+		Merger(T[] a, int n, Comparator<? super T> c) {
+			this.a = a;
+			this.n = n;
+			this.c = c;
+			// a merge copies the shorter run, so half the array is enough at most
+			this.temp = (T[]) new Object[Math.min(256, n >>> 1)];
+			if (SortStats.ENABLED) SortStats.allocate(temp.length);
+		}
+		
+		void pushRun(int base, int len) {
+			runBase[stackSize] = base;
+			runLen[stackSize] = len;
+			stackSize++;
+		}
+		
+		/**
+		*	Merge runs on top of the stack until, for the top 3 runs X Y Z,
+		*	X > Y + Z and Y > Z. That keeps the run lengths growing like fibonacci going
+		*	down the stack, so each merge is between runs of about the same length
+		*/
+		void mergeCollapse() {
+			while (stackSize > 1) {
+				int n = stackSize - 2;
+				if ((n > 0 && runLen[n-1] <= runLen[n] + runLen[n+1])
+					|| (n > 1 && runLen[n-2] <= runLen[n-1] + runLen[n])) {
+					if (runLen[n-1] < runLen[n+1]) n--;
+				}
+				else if (runLen[n] > runLen[n+1]) {
+					break;
+				}
+				mergeAt(n);
+			}
+		}
+		
+		// merge all the remaining runs once the whole array has been scanned
+		void mergeForceCollapse() {
+			while (stackSize > 1) {
+				int n = stackSize - 2;
+				if (n > 0 && runLen[n-1] < runLen[n+1]) n--;
+				mergeAt(n);
+			}
+		}
+		
+		/**
+		*	Merge run i and i+1
+		*	Items of run i that are <= the first item of run i+1 are already in place, so are
+		*	items of run i+1 that are >= the last item of run i. Only merge what's left
+		*/
+		private void mergeAt(int i) {
+			int base1 = runBase[i];
+			int len1 = runLen[i];
+			int base2 = runBase[i+1];
+			int len2 = runLen[i+1];
+			
+			runLen[i] = len1 + len2;
+			if (i == stackSize - 3) {
+				runBase[i+1] = runBase[i+2];
+				runLen[i+1] = runLen[i+2];
+			}
+			stackSize--;
+			
+			int k = gallopRight(a[base2], a, base1, len1, 0, c);
+			base1 += k;
+			len1 -= k;
+			if (len1 == 0) return;
+			
+			len2 = gallopLeft(a[base1+len1-1], a, base2, len2, len2 - 1, c);
+			if (len2 == 0) return;
+			
+			if (len1 <= len2) mergeLo(base1, len1, base2, len2);
+			else mergeHi(base1, len1, base2, len2);
+		}
+		
+		/**
+		*	Merge from the front, copying only the left run to temp
+		*	Once a run wins minGallop times in a row, gallop to find how many more it wins
+		*	and move them with one arraycopy
+		*/
+		private void mergeLo(int base1, int len1, int base2, int len2) {
+			T[] tmp = ensureCapacity(len1);
+			System.arraycopy(a, base1, tmp, 0, len1);
+			
+			int c1 = 0;              // next item of left run, in tmp
+			int end1 = len1;
+			int c2 = base2;          // next item of right run, in a
+			int end2 = base2 + len2;
+			int dest = base1;
+			
+			outer:
+			while (c1 < end1 && c2 < end2) {
+				int count1 = 0;
+				int count2 = 0;
+				
+				// one item at a time until a run wins minGallop times in a row
+				while (c1 < end1 && c2 < end2) {
+					if (lessThan(c, a[c2], tmp[c1])) {
+						a[dest++] = a[c2++];
+						count2++;
+						count1 = 0;
+						if (count2 >= minGallop) break;
+					}
+					else {
+						a[dest++] = tmp[c1++];
+						count1++;
+						count2 = 0;
+						if (count1 >= minGallop) break;
+					}
+				}
+				
+				// gallop while it keeps paying off, make galloping easier to enter next time
+				while (c1 < end1 && c2 < end2) {
+					count1 = gallopRight(a[c2], tmp, c1, end1 - c1, 0, c);
+					System.arraycopy(tmp, c1, a, dest, count1);
+					dest += count1;
+					c1 += count1;
+					if (c1 == end1) break outer;
+					
+					count2 = gallopLeft(tmp[c1], a, c2, end2 - c2, 0, c);
+					System.arraycopy(a, c2, a, dest, count2);
+					dest += count2;
+					c2 += count2;
+					if (c2 == end2) break outer;
+					
+					if (count1 < MIN_GALLOP && count2 < MIN_GALLOP) {
+						minGallop++;
+						break;
+					}
+					if (minGallop > 1) minGallop--;
+				}
+			}
+			
+			// whatever is left of the right run is already in place
+			// every write went to base1 up to dest, plus the len1 items copied to tmp
+			if (SortStats.ENABLED) SortStats.move(len1 + (dest - base1) + (end1 - c1));
+			System.arraycopy(tmp, c1, a, dest, end1 - c1);
+		}
+		
+		/**
+		*	Same as mergeLo but merge from the back, copying only the right run to temp
+		*/
+		private void mergeHi(int base1, int len1, int base2, int len2) {
+			T[] tmp = ensureCapacity(len2);
+			System.arraycopy(a, base2, tmp, 0, len2);
+			
+			int c1 = base1 + len1 - 1;  // last item of left run, in a
+			int c2 = len2 - 1;          // last item of right run, in tmp
+			int dest = base2 + len2 - 1;
+			
+			outer:
+			while (c1 >= base1 && c2 >= 0) {
+				int count1 = 0;
+				int count2 = 0;
+				
+				while (c1 >= base1 && c2 >= 0) {
+					if (lessThan(c, tmp[c2], a[c1])) {
+						a[dest--] = a[c1--];
+						count1++;
+						count2 = 0;
+						if (count1 >= minGallop) break;
+					}
+					else {
+						a[dest--] = tmp[c2--];
+						count2++;
+						count1 = 0;
+						if (count2 >= minGallop) break;
+					}
+				}
+				
+				while (c1 >= base1 && c2 >= 0) {
+					// items of the left run greater than tmp[c2] go to the back
+					int left = c1 - base1 + 1;
+					count1 = left - gallopRight(tmp[c2], a, base1, left, left - 1, c);
+					System.arraycopy(a, c1 - count1 + 1, a, dest - count1 + 1, count1);
+					dest -= count1;
+					c1 -= count1;
+					if (c1 < base1) break outer;
+					
+					// items of the right run greater than or equal to a[c1] go next
+					count2 = (c2 + 1) - gallopLeft(a[c1], tmp, 0, c2 + 1, c2, c);
+					System.arraycopy(tmp, c2 - count2 + 1, a, dest - count2 + 1, count2);
+					dest -= count2;
+					c2 -= count2;
+					if (c2 < 0) break outer;
+					
+					if (count1 < MIN_GALLOP && count2 < MIN_GALLOP) {
+						minGallop++;
+						break;
+					}
+					if (minGallop > 1) minGallop--;
+				}
+			}
+			
+			// whatever is left of the left run is already in place
+			if (SortStats.ENABLED) SortStats.move(len2 + (base2 + len2 - 1 - dest) + (c2 + 1));
+			System.arraycopy(tmp, 0, a, dest - c2, c2 + 1);
+		}
+		
+		private T[] ensureCapacity(int minCapacity) {
+			if (temp.length < minCapacity) {
+				int newSize = Math.max(minCapacity, Math.min(temp.length * 2, n >>> 1));
+				temp = (T[]) new Object[newSize];
+				if (SortStats.ENABLED) SortStats.allocate(newSize);
+			}
+			return temp;
+		}
+	}
+	
+	/**
+	*	Integer that counts how many times it's compared
+	*/
+	private static class Counted implements Comparable<Counted> {
+		private static long compares = 0;
+		private final int value;
+		
+		Counted(int value) { this.value = value; }
+		
+		public int compareTo(Counted other) {
+			compares++;
+			return Integer.compare(value, other.value);
+		}
+	}
+	
+	// number of compares each sort needs on the same input
+	private static void compareCounts(String name, int[] input) {
+		Counted[] a = new Counted[input.length];
+		Counted[] b = new Counted[input.length];
+		for (int i = 0; i < input.length; i++) {
+			a[i] = new Counted(input[i]);
+			b[i] = a[i];
+		}
+		
+		Counted.compares = 0;
+		MergeSort.sort(a);
+		long merge = Counted.compares;
+		
+		Counted.compares = 0;
+		NaturalMergeSort.sort(b);
+		long natural = Counted.compares;
+		
+		System.out.printf("%-14s MergeSort: %10d  NaturalMergeSort: %10d%n", name, merge, natural);
+	}
+	
+	public static void main(String[] args) {
+		int size = 1000000;
+		java.util.Random rand = new java.util.Random();
+		int[] random = new int[size];
+		int[] sorted = new int[size];
+		int[] reversed = new int[size];
+		int[] appended = new int[size];  // sorted timestamps with a few out of order
+		for (int i = 0; i < size; i++) {
+			random[i] = rand.nextInt();
+			sorted[i] = i;
+			reversed[i] = size - i;
+			appended[i] = (rand.nextInt(100) == 0) ? i - rand.nextInt(1000) : i;
+		}
+		
+		compareCounts("random", random);
+		compareCounts("sorted", sorted);
+		compareCounts("reversed", reversed);
+		compareCounts("nearly sorted", appended);
+		
+		String[] sarr = {"Hello", "World", "From", "Java", "Rookie"};
+		NaturalMergeSort.sort(sarr);
+		print(sarr);
+	}
+}
\ No newline at end of file
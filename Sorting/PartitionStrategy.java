@@ -0,0 +1,33 @@
+/**
+*	Partition schemes the primitive quick sorts can use, see QuickSort.sort(int[], PartitionStrategy)
+*	HOARE      - QuickSort: 1 pivot, scan in from both ends and swap
+*	THREE_WAY  - Quick3Way: less, equal and greater than pivot. Fast with many duplicates
+*	DUAL_PIVOT - QSort2Pivot: 2 pivots, 3 sub arrays
+*	BLOCK      - BlockQuickSort: Hoare partition in blocks, no data dependent branches
+*/
+enum PartitionStrategy {
+	HOARE {
+		void sort(int[] a) { QuickSort.sort(a); }
+		void sort(long[] a) { QuickSort.sort(a); }
+		void sort(double[] a) { QuickSort.sort(a); }
+	},
+	THREE_WAY {
+		void sort(int[] a) { Quick3Way.sort(a); }
+		void sort(long[] a) { Quick3Way.sort(a); }
+		void sort(double[] a) { Quick3Way.sort(a); }
+	},
+	DUAL_PIVOT {
+		void sort(int[] a) { QSort2Pivot.sort(a); }
+		void sort(long[] a) { QSort2Pivot.sort(a); }
+		void sort(double[] a) { QSort2Pivot.sort(a); }
+	},
+	BLOCK {
+		void sort(int[] a) { BlockQuickSort.sort(a); }
+		void sort(long[] a) { BlockQuickSort.sort(a); }
+		void sort(double[] a) { BlockQuickSort.sort(a); }
+	};
+	
+	abstract void sort(int[] a);
+	abstract void sort(long[] a);
+	abstract void sort(double[] a);
+}
\ No newline at end of file
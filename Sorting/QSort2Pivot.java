@@ -1,42 +1,735 @@
+import java.util.Comparator;
+
 class QSort2Pivot extends AbstractSort {
 	
+	// the 5 samples n/7 apart need at least 9 items
+	private static final int INSERTION_CUTOFF = Math.max(8, InsertionSort.CUTOFF);
+	
 	public static <T extends Comparable<T>> void sort(T[] a) {
 		dualPartition(a, 0, a.length-1);
 	}
 	
+	public static <T> void sort(T[] a, Comparator<? super T> c) {
+		sort(a, 0, a.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		rangeCheck(a.length, from, to);
+		dualPartition(a, from, to - 1, c);
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		dualPartition(a, 0, a.length - 1);
+	}
+	
+	public static void sort(long[] a) {
+		dualPartition(a, 0, a.length - 1);
+	}
+	
+	public static void sort(double[] a) {
+		int hi = moveNaNsToEnd(a);
+		dualPartition(a, 0, hi);
+		fixZeros(a, hi);
+	}
+	
 	/**
-	*	Partition array a into 3 sub ararys using 2 pivots
+	*	Dual pivot quicksort (Yaroslavskiy)
+	*	Partition array a into 3 sub arrays using 2 pivots
 	* 	First sub array is less than first pivot
 	*	Second sub array is in between first and second pivot
 	*	Third sub array is greater than second pivot
+	*	Pivots are the 2nd and 4th of 5 sorted samples, so they split the array about in thirds
+	*	even on sorted input. Equal pivots mean lots of duplicates: 3-way partition instead
+	*	The 2 smaller sub arrays are sorted recursively and the biggest one by looping,
+	*	so the stack is at most logN deep. Small sub arrays are insertion sorted
 	*/
 	private static <T extends Comparable<T>> void dualPartition(T[] a, int lo, int hi) {
-		if (hi <= lo) return;
-		
-		// use lo and hi as pivot. make sure they're in right place first
-		if (lessThan(a[hi], a[lo])) swap(a, lo, hi);
-		int lt = lo + 1;
-		int gt = hi - 1;
-		int i = lo + 1;
-		
-		while (i <= gt) {
-			// swap i and lt if a[i] < a[lo]
-			if (lessThan(a[i], a[lo])) swap(a, lt++, i++);
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > INSERTION_CUTOFF) {
+			// 5 sample items around the middle, about n/7 apart
+			int seventh = ((hi - lo + 1) >> 3) + ((hi - lo + 1) >> 6) + 1;
+			int e3 = (lo + hi) >>> 1;
+			int e2 = e3 - seventh;
+			int e1 = e2 - seventh;
+			int e4 = e3 + seventh;
+			int e5 = e4 + seventh;
+			sort5(a, e1, e2, e3, e4, e5);
+			
+			int lt;
+			int gt;
+			if (lessThan(a[e2], a[e4])) {
+				// 2nd and 4th sample are the pivots, move them to lo and hi
+				swap(a, lo, e2);
+				swap(a, hi, e4);
+				T p = a[lo];
+				T q = a[hi];
+				lt = lo + 1;
+				gt = hi - 1;
+				int i = lo + 1;
+				
+				while (i <= gt) {
+					if (lessThan(a[i], p)) swap(a, lt++, i++);
+					else if (lessThan(q, a[i])) {
+						while (i < gt && lessThan(q, a[gt])) gt--;
+						swap(a, i, gt--);
+						if (lessThan(a[i], p)) swap(a, lt++, i);
+						i++;
+					}
+					else i++;
+				}
+				
+				// moving pivots to their correct places
+				swap(a, lo, --lt);
+				swap(a, hi, ++gt);
+				
+				// big middle part usually means many items equal to a pivot, move them
+				// next to the pivots so the middle part sorted next doesn't have them
+				int ml = lt + 1;
+				int mg = gt - 1;
+				if (mg - ml > (hi - lo) / 7 * 4) {  // divide first, (hi - lo) * 4 overflows past 2^29
+					for (int k = ml; k <= mg; k++) {
+						if (!lessThan(p, a[k])) swap(a, k, ml++);
+						else if (!lessThan(a[k], q)) {
+							while (k < mg && !lessThan(a[mg], q)) mg--;
+							swap(a, k, mg--);
+							if (!lessThan(p, a[k])) swap(a, k, ml++);
+						}
+					}
+				}
+				
+				// recurse into the 2 smaller parts, keep looping on the biggest
+				int left = lt - lo;
+				int middle = mg - ml + 1;
+				int right = hi - gt;
+				if (left >= middle && left >= right) {
+					dualPartition(a, ml, mg);
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+				else if (middle >= right) {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, gt+1, hi);
+					lo = ml;
+					hi = mg;
+				}
+				else {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, ml, mg);
+					lo = gt + 1;
+				}
+			}
+			else {
+				// pivots are equal: 3-way partition on the middle sample, the middle
+				// part is all equal to the pivot so it's skipped
+				swap(a, lo, e3);
+				T p = a[lo];
+				lt = lo;
+				gt = hi;
+				int i = lo + 1;
+				while (i <= gt) {
+					if (lessThan(a[i], p)) swap(a, lt++, i++);
+					else if (lessThan(p, a[i])) swap(a, gt--, i);
+					else i++;
+				}
+				
+				if (lt - lo < hi - gt) {
+					dualPartition(a, lo, lt-1);
+					lo = gt + 1;
+				}
+				else {
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+			}
+		}
+		InsertionSort.binarySort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// insertion sort the 5 samples in place
+	private static <T extends Comparable<T>> void sort5(T[] a, int e1, int e2, int e3, int e4, int e5) {
+		if (lessThan(a[e2], a[e1])) swap(a, e1, e2);
+		if (lessThan(a[e3], a[e2])) {
+			swap(a, e2, e3);
+			if (lessThan(a[e2], a[e1])) swap(a, e1, e2);
+		}
+		if (lessThan(a[e4], a[e3])) {
+			swap(a, e3, e4);
+			if (lessThan(a[e3], a[e2])) {
+				swap(a, e2, e3);
+				if (lessThan(a[e2], a[e1])) swap(a, e1, e2);
+			}
+		}
+		if (lessThan(a[e5], a[e4])) {
+			swap(a, e4, e5);
+			if (lessThan(a[e4], a[e3])) {
+				swap(a, e3, e4);
+				if (lessThan(a[e3], a[e2])) {
+					swap(a, e2, e3);
+					if (lessThan(a[e2], a[e1])) swap(a, e1, e2);
+				}
+			}
+		}
+	}
+	
+	private static <T> void dualPartition(T[] a, int lo, int hi, Comparator<? super T> c) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > INSERTION_CUTOFF) {
+			// 5 sample items around the middle, about n/7 apart
+			int seventh = ((hi - lo + 1) >> 3) + ((hi - lo + 1) >> 6) + 1;
+			int e3 = (lo + hi) >>> 1;
+			int e2 = e3 - seventh;
+			int e1 = e2 - seventh;
+			int e4 = e3 + seventh;
+			int e5 = e4 + seventh;
+			sort5(a, e1, e2, e3, e4, e5, c);
+			
+			int lt;
+			int gt;
+			if (lessThan(c, a[e2], a[e4])) {
+				// 2nd and 4th sample are the pivots, move them to lo and hi
+				swap(a, lo, e2);
+				swap(a, hi, e4);
+				T p = a[lo];
+				T q = a[hi];
+				lt = lo + 1;
+				gt = hi - 1;
+				int i = lo + 1;
+				
+				while (i <= gt) {
+					if (lessThan(c, a[i], p)) swap(a, lt++, i++);
+					else if (lessThan(c, q, a[i])) {
+						while (i < gt && lessThan(c, q, a[gt])) gt--;
+						swap(a, i, gt--);
+						if (lessThan(c, a[i], p)) swap(a, lt++, i);
+						i++;
+					}
+					else i++;
+				}
+				
+				// moving pivots to their correct places
+				swap(a, lo, --lt);
+				swap(a, hi, ++gt);
+				
+				// big middle part usually means many items equal to a pivot, move them
+				// next to the pivots so the middle part sorted next doesn't have them
+				int ml = lt + 1;
+				int mg = gt - 1;
+				if (mg - ml > (hi - lo) / 7 * 4) {  // divide first, (hi - lo) * 4 overflows past 2^29
+					for (int k = ml; k <= mg; k++) {
+						if (!lessThan(c, p, a[k])) swap(a, k, ml++);
+						else if (!lessThan(c, a[k], q)) {
+							while (k < mg && !lessThan(c, a[mg], q)) mg--;
+							swap(a, k, mg--);
+							if (!lessThan(c, p, a[k])) swap(a, k, ml++);
+						}
+					}
+				}
+				
+				// recurse into the 2 smaller parts, keep looping on the biggest
+				int left = lt - lo;
+				int middle = mg - ml + 1;
+				int right = hi - gt;
+				if (left >= middle && left >= right) {
+					dualPartition(a, ml, mg, c);
+					dualPartition(a, gt+1, hi, c);
+					hi = lt - 1;
+				}
+				else if (middle >= right) {
+					dualPartition(a, lo, lt-1, c);
+					dualPartition(a, gt+1, hi, c);
+					lo = ml;
+					hi = mg;
+				}
+				else {
+					dualPartition(a, lo, lt-1, c);
+					dualPartition(a, ml, mg, c);
+					lo = gt + 1;
+				}
+			}
+			else {
+				// pivots are equal: 3-way partition on the middle sample, the middle
+				// part is all equal to the pivot so it's skipped
+				swap(a, lo, e3);
+				T p = a[lo];
+				lt = lo;
+				gt = hi;
+				int i = lo + 1;
+				while (i <= gt) {
+					if (lessThan(c, a[i], p)) swap(a, lt++, i++);
+					else if (lessThan(c, p, a[i])) swap(a, gt--, i);
+					else i++;
+				}
+				
+				if (lt - lo < hi - gt) {
+					dualPartition(a, lo, lt-1, c);
+					lo = gt + 1;
+				}
+				else {
+					dualPartition(a, gt+1, hi, c);
+					hi = lt - 1;
+				}
+			}
+		}
+		InsertionSort.binarySort(a, lo, hi + 1, c);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// insertion sort the 5 samples in place
+	private static <T> void sort5(T[] a, int e1, int e2, int e3, int e4, int e5, Comparator<? super T> c) {
+		if (lessThan(c, a[e2], a[e1])) swap(a, e1, e2);
+		if (lessThan(c, a[e3], a[e2])) {
+			swap(a, e2, e3);
+			if (lessThan(c, a[e2], a[e1])) swap(a, e1, e2);
+		}
+		if (lessThan(c, a[e4], a[e3])) {
+			swap(a, e3, e4);
+			if (lessThan(c, a[e3], a[e2])) {
+				swap(a, e2, e3);
+				if (lessThan(c, a[e2], a[e1])) swap(a, e1, e2);
+			}
+		}
+		if (lessThan(c, a[e5], a[e4])) {
+			swap(a, e4, e5);
+			if (lessThan(c, a[e4], a[e3])) {
+				swap(a, e3, e4);
+				if (lessThan(c, a[e3], a[e2])) {
+					swap(a, e2, e3);
+					if (lessThan(c, a[e2], a[e1])) swap(a, e1, e2);
+				}
+			}
+		}
+	}
+	
+	static void dualPartition(int[] a, int lo, int hi) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > INSERTION_CUTOFF) {
+			// 5 sample items around the middle, about n/7 apart
+			int seventh = ((hi - lo + 1) >> 3) + ((hi - lo + 1) >> 6) + 1;
+			int e3 = (lo + hi) >>> 1;
+			int e2 = e3 - seventh;
+			int e1 = e2 - seventh;
+			int e4 = e3 + seventh;
+			int e5 = e4 + seventh;
+			sort5(a, e1, e2, e3, e4, e5);
+			
+			int lt;
+			int gt;
+			if (a[e2] < a[e4]) {
+				// 2nd and 4th sample are the pivots, move them to lo and hi
+				swap(a, lo, e2);
+				swap(a, hi, e4);
+				int p = a[lo];
+				int q = a[hi];
+				lt = lo + 1;
+				gt = hi - 1;
+				int i = lo + 1;
+				
+				while (i <= gt) {
+					if (a[i] < p) swap(a, lt++, i++);
+					else if (q < a[i]) {
+						while (i < gt && q < a[gt]) gt--;
+						swap(a, i, gt--);
+						if (a[i] < p) swap(a, lt++, i);
+						i++;
+					}
+					else i++;
+				}
+				
+				// moving pivots to their correct places
+				swap(a, lo, --lt);
+				swap(a, hi, ++gt);
+				
+				// big middle part usually means many items equal to a pivot, move them
+				// next to the pivots so the middle part sorted next doesn't have them
+				int ml = lt + 1;
+				int mg = gt - 1;
+				if (mg - ml > (hi - lo) / 7 * 4) {  // divide first, (hi - lo) * 4 overflows past 2^29
+					for (int k = ml; k <= mg; k++) {
+						if (a[k] == p) swap(a, k, ml++);
+						else if (a[k] == q) {
+							while (k < mg && a[mg] == q) mg--;
+							swap(a, k, mg--);
+							if (a[k] == p) swap(a, k, ml++);
+						}
+					}
+				}
+				
+				// recurse into the 2 smaller parts, keep looping on the biggest
+				int left = lt - lo;
+				int middle = mg - ml + 1;
+				int right = hi - gt;
+				if (left >= middle && left >= right) {
+					dualPartition(a, ml, mg);
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+				else if (middle >= right) {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, gt+1, hi);
+					lo = ml;
+					hi = mg;
+				}
+				else {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, ml, mg);
+					lo = gt + 1;
+				}
+			}
+			else {
+				// pivots are equal: 3-way partition on the middle sample, the middle
+				// part is all equal to the pivot so it's skipped
+				swap(a, lo, e3);
+				int p = a[lo];
+				lt = lo;
+				gt = hi;
+				int i = lo + 1;
+				while (i <= gt) {
+					if (a[i] < p) swap(a, lt++, i++);
+					else if (p < a[i]) swap(a, gt--, i);
+					else i++;
+				}
+				
+				if (lt - lo < hi - gt) {
+					dualPartition(a, lo, lt-1);
+					lo = gt + 1;
+				}
+				else {
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+			}
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// insertion sort the 5 samples in place
+	private static void sort5(int[] a, int e1, int e2, int e3, int e4, int e5) {
+		if (a[e2] < a[e1]) swap(a, e1, e2);
+		if (a[e3] < a[e2]) {
+			swap(a, e2, e3);
+			if (a[e2] < a[e1]) swap(a, e1, e2);
+		}
+		if (a[e4] < a[e3]) {
+			swap(a, e3, e4);
+			if (a[e3] < a[e2]) {
+				swap(a, e2, e3);
+				if (a[e2] < a[e1]) swap(a, e1, e2);
+			}
+		}
+		if (a[e5] < a[e4]) {
+			swap(a, e4, e5);
+			if (a[e4] < a[e3]) {
+				swap(a, e3, e4);
+				if (a[e3] < a[e2]) {
+					swap(a, e2, e3);
+					if (a[e2] < a[e1]) swap(a, e1, e2);
+				}
+			}
+		}
+	}
+	
+	static void dualPartition(long[] a, int lo, int hi) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > INSERTION_CUTOFF) {
+			// 5 sample items around the middle, about n/7 apart
+			int seventh = ((hi - lo + 1) >> 3) + ((hi - lo + 1) >> 6) + 1;
+			int e3 = (lo + hi) >>> 1;
+			int e2 = e3 - seventh;
+			int e1 = e2 - seventh;
+			int e4 = e3 + seventh;
+			int e5 = e4 + seventh;
+			sort5(a, e1, e2, e3, e4, e5);
 			
-			// swap i and gt if a[i] > a[hi]
-			else if (lessThan(a[hi], a[i])) swap(a, gt--, i);
+			int lt;
+			int gt;
+			if (a[e2] < a[e4]) {
+				// 2nd and 4th sample are the pivots, move them to lo and hi
+				swap(a, lo, e2);
+				swap(a, hi, e4);
+				long p = a[lo];
+				long q = a[hi];
+				lt = lo + 1;
+				gt = hi - 1;
+				int i = lo + 1;
+				
+				while (i <= gt) {
+					if (a[i] < p) swap(a, lt++, i++);
+					else if (q < a[i]) {
+						while (i < gt && q < a[gt]) gt--;
+						swap(a, i, gt--);
+						if (a[i] < p) swap(a, lt++, i);
+						i++;
+					}
+					else i++;
+				}
+				
+				// moving pivots to their correct places
+				swap(a, lo, --lt);
+				swap(a, hi, ++gt);
+				
+				// big middle part usually means many items equal to a pivot, move them
+				// next to the pivots so the middle part sorted next doesn't have them
+				int ml = lt + 1;
+				int mg = gt - 1;
+				if (mg - ml > (hi - lo) / 7 * 4) {  // divide first, (hi - lo) * 4 overflows past 2^29
+					for (int k = ml; k <= mg; k++) {
+						if (a[k] == p) swap(a, k, ml++);
+						else if (a[k] == q) {
+							while (k < mg && a[mg] == q) mg--;
+							swap(a, k, mg--);
+							if (a[k] == p) swap(a, k, ml++);
+						}
+					}
+				}
+				
+				// recurse into the 2 smaller parts, keep looping on the biggest
+				int left = lt - lo;
+				int middle = mg - ml + 1;
+				int right = hi - gt;
+				if (left >= middle && left >= right) {
+					dualPartition(a, ml, mg);
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+				else if (middle >= right) {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, gt+1, hi);
+					lo = ml;
+					hi = mg;
+				}
+				else {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, ml, mg);
+					lo = gt + 1;
+				}
+			}
+			else {
+				// pivots are equal: 3-way partition on the middle sample, the middle
+				// part is all equal to the pivot so it's skipped
+				swap(a, lo, e3);
+				long p = a[lo];
+				lt = lo;
+				gt = hi;
+				int i = lo + 1;
+				while (i <= gt) {
+					if (a[i] < p) swap(a, lt++, i++);
+					else if (p < a[i]) swap(a, gt--, i);
+					else i++;
+				}
+				
+				if (lt - lo < hi - gt) {
+					dualPartition(a, lo, lt-1);
+					lo = gt + 1;
+				}
+				else {
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+			}
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// insertion sort the 5 samples in place
+	private static void sort5(long[] a, int e1, int e2, int e3, int e4, int e5) {
+		if (a[e2] < a[e1]) swap(a, e1, e2);
+		if (a[e3] < a[e2]) {
+			swap(a, e2, e3);
+			if (a[e2] < a[e1]) swap(a, e1, e2);
+		}
+		if (a[e4] < a[e3]) {
+			swap(a, e3, e4);
+			if (a[e3] < a[e2]) {
+				swap(a, e2, e3);
+				if (a[e2] < a[e1]) swap(a, e1, e2);
+			}
+		}
+		if (a[e5] < a[e4]) {
+			swap(a, e4, e5);
+			if (a[e4] < a[e3]) {
+				swap(a, e3, e4);
+				if (a[e3] < a[e2]) {
+					swap(a, e2, e3);
+					if (a[e2] < a[e1]) swap(a, e1, e2);
+				}
+			}
+		}
+	}
+	
+	static void dualPartition(double[] a, int lo, int hi) {
+		if (SortStats.ENABLED) SortStats.enter();
+		while (hi - lo + 1 > INSERTION_CUTOFF) {
+			// 5 sample items around the middle, about n/7 apart
+			int seventh = ((hi - lo + 1) >> 3) + ((hi - lo + 1) >> 6) + 1;
+			int e3 = (lo + hi) >>> 1;
+			int e2 = e3 - seventh;
+			int e1 = e2 - seventh;
+			int e4 = e3 + seventh;
+			int e5 = e4 + seventh;
+			sort5(a, e1, e2, e3, e4, e5);
 			
-			// if a[lo] <= a[i] <= a[hi]. Keep scanning
-			else i++;
+			int lt;
+			int gt;
+			if (a[e2] < a[e4]) {
+				// 2nd and 4th sample are the pivots, move them to lo and hi
+				swap(a, lo, e2);
+				swap(a, hi, e4);
+				double p = a[lo];
+				double q = a[hi];
+				lt = lo + 1;
+				gt = hi - 1;
+				int i = lo + 1;
+				
+				while (i <= gt) {
+					if (a[i] < p) swap(a, lt++, i++);
+					else if (q < a[i]) {
+						while (i < gt && q < a[gt]) gt--;
+						swap(a, i, gt--);
+						if (a[i] < p) swap(a, lt++, i);
+						i++;
+					}
+					else i++;
+				}
+				
+				// moving pivots to their correct places
+				swap(a, lo, --lt);
+				swap(a, hi, ++gt);
+				
+				// big middle part usually means many items equal to a pivot, move them
+				// next to the pivots so the middle part sorted next doesn't have them
+				int ml = lt + 1;
+				int mg = gt - 1;
+				if (mg - ml > (hi - lo) / 7 * 4) {  // divide first, (hi - lo) * 4 overflows past 2^29
+					for (int k = ml; k <= mg; k++) {
+						if (a[k] == p) swap(a, k, ml++);
+						else if (a[k] == q) {
+							while (k < mg && a[mg] == q) mg--;
+							swap(a, k, mg--);
+							if (a[k] == p) swap(a, k, ml++);
+						}
+					}
+				}
+				
+				// recurse into the 2 smaller parts, keep looping on the biggest
+				int left = lt - lo;
+				int middle = mg - ml + 1;
+				int right = hi - gt;
+				if (left >= middle && left >= right) {
+					dualPartition(a, ml, mg);
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+				else if (middle >= right) {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, gt+1, hi);
+					lo = ml;
+					hi = mg;
+				}
+				else {
+					dualPartition(a, lo, lt-1);
+					dualPartition(a, ml, mg);
+					lo = gt + 1;
+				}
+			}
+			else {
+				// pivots are equal: 3-way partition on the middle sample, the middle
+				// part is all equal to the pivot so it's skipped
+				swap(a, lo, e3);
+				double p = a[lo];
+				lt = lo;
+				gt = hi;
+				int i = lo + 1;
+				while (i <= gt) {
+					if (a[i] < p) swap(a, lt++, i++);
+					else if (p < a[i]) swap(a, gt--, i);
+					else i++;
+				}
+				
+				if (lt - lo < hi - gt) {
+					dualPartition(a, lo, lt-1);
+					lo = gt + 1;
+				}
+				else {
+					dualPartition(a, gt+1, hi);
+					hi = lt - 1;
+				}
+			}
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// insertion sort the 5 samples in place
+	private static void sort5(double[] a, int e1, int e2, int e3, int e4, int e5) {
+		if (a[e2] < a[e1]) swap(a, e1, e2);
+		if (a[e3] < a[e2]) {
+			swap(a, e2, e3);
+			if (a[e2] < a[e1]) swap(a, e1, e2);
+		}
+		if (a[e4] < a[e3]) {
+			swap(a, e3, e4);
+			if (a[e3] < a[e2]) {
+				swap(a, e2, e3);
+				if (a[e2] < a[e1]) swap(a, e1, e2);
+			}
 		}
+		if (a[e5] < a[e4]) {
+			swap(a, e4, e5);
+			if (a[e4] < a[e3]) {
+				swap(a, e3, e4);
+				if (a[e3] < a[e2]) {
+					swap(a, e2, e3);
+					if (a[e2] < a[e1]) swap(a, e1, e2);
+				}
+			}
+		}
+	}
+	
+	public static void main(String[] args) {
+		int size = 10000000;
+		java.util.Random rand = new java.util.Random();
+		Integer[] random = new Integer[size];
+		Integer[] duplicates = new Integer[size];
+		Integer[] sorted = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			random[i] = rand.nextInt();
+			duplicates[i] = rand.nextInt(size / 1000);
+			sorted[i] = i;
+		}
+		
+		bench("random", random);
+		bench("duplicates", duplicates);
+		bench("sorted", sorted);
+	}
+	
+	// time QSort2Pivot, QuickSort and Quick3Way on copies of the same input
+	private static void bench(String name, Integer[] input) {
+		Integer[] a = input.clone();
+		long start = System.currentTimeMillis();
+		QSort2Pivot.sort(a);
+		float dual = (float) (System.currentTimeMillis() - start) / 1000;
+		
+		a = input.clone();
+		start = System.currentTimeMillis();
+		QuickSort.sort(a);
+		float quick = (float) (System.currentTimeMillis() - start) / 1000;
 		
-		// moving pivots to their correct places
-		swap(a, lo, --lt);
-		swap(a, hi, ++gt);
+		a = input.clone();
+		start = System.currentTimeMillis();
+		Quick3Way.sort(a);
+		float quick3 = (float) (System.currentTimeMillis() - start) / 1000;
 		
-		// recursively sort the 3 sub arrays. Array reduced by 2 every call
-		dualPartition(a, lo, lt-1);
-		dualPartition(a, lt+1, gt-1);
-		dualPartition(a, gt+1, hi);
+		System.out.println(name + ": QSort2Pivot " + dual + "  QuickSort " + quick + "  Quick3Way " + quick3);
 	}
 }
\ No newline at end of file
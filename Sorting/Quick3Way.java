@@ -1,3 +1,10 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
 *	Similar to QuickSort but partition array into 3 sub arrays instead
 *	less than pivot array, equal pivot array, and greater pivot array
@@ -12,9 +19,24 @@ class Quick3Way extends AbstractSort {
 		sort(a, 0, a.length-1);
 	}
 	
-	private static <T  extends Comparable<T>> void sort(T[] a, int lo, int hi) {
+	/**
+	*	Parallel version: sub arrays bigger than cutoff are partitioned, and the bigger side
+	*	is forked as a ForkJoin task (the items equal to the pivot are done) while this task keeps partitioning the smaller side
+	*	Pivots are picked at random with ThreadLocalRandom instead of shuffling the whole
+	*	array up front, sub arrays of cutoff or less are shuffled and sorted sequentially
+	*/
+	public static <T extends Comparable<T>> void parallelSort(T[] a, int cutoff) {
+		if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive");
+		ForkJoinPool.commonPool().invoke(new SortTask<T>(a, 0, a.length - 1, cutoff));
+	}
+	
+	static <T  extends Comparable<T>> void sort(T[] a, int lo, int hi) {
 
-		if (lo >= hi) return;
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.binarySort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
 		
 		T pivot = a[lo];
 		
@@ -27,6 +49,7 @@ class Quick3Way extends AbstractSort {
 		
 		while (i <= gt) {
 			// advance i, compare it to pivot
+			if (SortStats.ENABLED) SortStats.compare();
 			int compare = a[i].compareTo(pivot);
 			// if a[i] less than pivot, move to lt, advance lt and i
 			if (compare < 0) swap(a, lt++, i++);
@@ -39,9 +62,203 @@ class Quick3Way extends AbstractSort {
 		
 		sort(a, lo, lt-1);
 		sort(a, gt+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
 	}
 	
 	
+	public static <T> void sort(T[] a, Comparator<? super T> c) {
+		sort(a, 0, a.length, c);
+	}
+	
+	private static class SortTask<T extends Comparable<T>> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final T[] a;
+		private final int lo;
+		private final int hi;
+		private final int cutoff;
+		private final int depth = SortStats.ENABLED ? SortStats.depth() + 1 : 0;  // one level below its creator
+		
+		SortTask(T[] a, int lo, int hi, int cutoff) {
+			this.a = a;
+			this.lo = lo;
+			this.hi = hi;
+			this.cutoff = cutoff;
+		}
+		
+		@Override
+		protected void compute() {
+			int saved = SortStats.ENABLED ? SortStats.resume(depth) : 0;
+			try {
+				ThreadLocalRandom rand = ThreadLocalRandom.current();
+				List<SortTask<T>> forked = new ArrayList<SortTask<T>>();
+				int lo = this.lo;
+				int hi = this.hi;
+				
+				while (hi - lo + 1 > cutoff) {
+					swap(a, lo, rand.nextInt(lo, hi + 1));
+					T pivot = a[lo];
+					int lt = lo;
+					int gt = hi;
+					int i = lo + 1;
+					while (i <= gt) {
+						if (SortStats.ENABLED) SortStats.compare();
+						int compare = a[i].compareTo(pivot);
+						if (compare < 0) swap(a, lt++, i++);
+						else if (compare > 0) swap(a, gt--, i);
+						else i++;
+					}
+					
+					// lt to gt are equal to pivot and already in place
+					SortTask<T> bigger;
+					if (lt - lo > hi - gt) {
+						bigger = new SortTask<T>(a, lo, lt - 1, cutoff);
+						lo = gt + 1;
+					}
+					else {
+						bigger = new SortTask<T>(a, gt + 1, hi, cutoff);
+						hi = lt - 1;
+					}
+					bigger.fork();
+					forked.add(bigger);
+				}
+				
+				shuffle(a, lo, hi, rand);
+				sort(a, lo, hi);
+				
+				for (SortTask<T> task : forked) task.join();
+			}
+			finally {
+				if (SortStats.ENABLED) SortStats.restore(saved);
+			}
+		}
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		rangeCheck(a.length, from, to);
+		shuffle(a, from, to - 1);
+		sort3Way(a, from, to - 1, c);
+	}
+	
+	private static <T> void sort3Way(T[] a, int lo, int hi, Comparator<? super T> c) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.binarySort(a, lo, hi + 1, c);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		
+		T pivot = a[lo];
+		int lt = lo;
+		int gt = hi;
+		int i = lo + 1;
+		
+		while (i <= gt) {
+			if (SortStats.ENABLED) SortStats.compare();
+			int compare = c.compare(a[i], pivot);
+			if (compare < 0) swap(a, lt++, i++);
+			else if (compare > 0) swap(a, gt--, i);
+			else i++;
+		}
+		
+		sort3Way(a, lo, lt-1, c);
+		sort3Way(a, gt+1, hi, c);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		shuffle(a);
+		sort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(long[] a) {
+		shuffle(a);
+		sort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(double[] a) {
+		shuffle(a);
+		int hi = moveNaNsToEnd(a);
+		sort(a, 0, hi);
+		fixZeros(a, hi);
+	}
+	
+	private static void sort(int[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		
+		int pivot = a[lo];
+		int lt = lo;
+		int gt = hi;
+		int i = lo + 1;
+		
+		while (i <= gt) {
+			if (a[i] < pivot) swap(a, lt++, i++);
+			else if (pivot < a[i]) swap(a, gt--, i);
+			else i++;
+		}
+		
+		sort(a, lo, lt-1);
+		sort(a, gt+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static void sort(long[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		
+		long pivot = a[lo];
+		int lt = lo;
+		int gt = hi;
+		int i = lo + 1;
+		
+		while (i <= gt) {
+			if (a[i] < pivot) swap(a, lt++, i++);
+			else if (pivot < a[i]) swap(a, gt--, i);
+			else i++;
+		}
+		
+		sort(a, lo, lt-1);
+		sort(a, gt+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	private static void sort(double[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		
+		double pivot = a[lo];
+		int lt = lo;
+		int gt = hi;
+		int i = lo + 1;
+		
+		while (i <= gt) {
+			if (a[i] < pivot) swap(a, lt++, i++);
+			else if (pivot < a[i]) swap(a, gt--, i);
+			else i++;
+		}
+		
+		sort(a, lo, lt-1);
+		sort(a, gt+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
 	public static void main(String[] args) {
 		int size = 10000000;
 		Integer[] test = new Integer[size];
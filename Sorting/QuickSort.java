@@ -1,19 +1,56 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
 class QuickSort extends AbstractSort {
 	
 	public static <T extends Comparable<T>> void sort(T[] a) {
 		// shuffle the array to probablistic guarantee not to run into N^2 runtime
 		shuffle(a);
-		sort(a, 0, a.length - 1);
+		quickSort(a, 0, a.length - 1);
 	}
 	
-	public static <T extends Comparable<T>> void sort(T[] a, int lo, int hi) {
-		if (hi <= lo) { return; }
+	/**
+	*	Parallel version: sub arrays bigger than cutoff are partitioned, and the bigger side
+	*	is forked as a ForkJoin task while this task keeps partitioning the smaller side
+	*	Pivots are picked at random with ThreadLocalRandom instead of shuffling the whole
+	*	array up front, sub arrays of cutoff or less are shuffled and sorted sequentially
+	*/
+	public static <T extends Comparable<T>> void parallelSort(T[] a, int cutoff) {
+		if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive");
+		ForkJoinPool.commonPool().invoke(new SortTask<T>(a, 0, a.length - 1, cutoff));
+	}
+	
+	/**
+	*	Sort only a[from] to a[to-1], to is exclusive like Arrays.sort
+	*	The range is shuffled first, same as the whole array
+	*/
+	public static <T extends Comparable<T>> void sort(T[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		shuffle(a, from, to - 1);
+		quickSort(a, from, to - 1);
+	}
+	
+	private static <T extends Comparable<T>> void quickSort(T[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.binarySort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
 		int pivot = partition(a, lo, hi);
-		sort(a, lo, pivot-1);
-		sort(a, pivot+1, hi);		
+		quickSort(a, lo, pivot-1);
+		quickSort(a, pivot+1, hi);		
+		if (SortStats.ENABLED) SortStats.exit();
 	}
 	
-	private static <T extends Comparable<T>> int partition(T[] a, int lo, int hi) {
+	/**
+	*	Partition a[lo] to a[hi] around a[lo]
+	*	returns the pivot's final index: everything left of it is <= pivot, right of it >= pivot
+	*/
+	static <T extends Comparable<T>> int partition(T[] a, int lo, int hi) {
 		
 		int i = lo;
 		int j = hi + 1;
@@ -34,6 +71,243 @@ class QuickSort extends AbstractSort {
 		return j;
 	}
 	
+	public static <T> void sort(T[] a, Comparator<? super T> c) {
+		sort(a, 0, a.length, c);
+	}
+	
+	private static class SortTask<T extends Comparable<T>> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final T[] a;
+		private final int lo;
+		private final int hi;
+		private final int cutoff;
+		private final int depth = SortStats.ENABLED ? SortStats.depth() + 1 : 0;  // one level below its creator
+		
+		SortTask(T[] a, int lo, int hi, int cutoff) {
+			this.a = a;
+			this.lo = lo;
+			this.hi = hi;
+			this.cutoff = cutoff;
+		}
+		
+		@Override
+		protected void compute() {
+			int saved = SortStats.ENABLED ? SortStats.resume(depth) : 0;
+			try {
+				ThreadLocalRandom rand = ThreadLocalRandom.current();
+				List<SortTask<T>> forked = new ArrayList<SortTask<T>>();
+				int lo = this.lo;
+				int hi = this.hi;
+				
+				while (hi - lo + 1 > cutoff) {
+					swap(a, lo, rand.nextInt(lo, hi + 1));
+					int p = partition(a, lo, hi);
+					
+					SortTask<T> bigger;
+					if (p - lo > hi - p) {
+						bigger = new SortTask<T>(a, lo, p - 1, cutoff);
+						lo = p + 1;
+					}
+					else {
+						bigger = new SortTask<T>(a, p + 1, hi, cutoff);
+						hi = p - 1;
+					}
+					bigger.fork();
+					forked.add(bigger);
+				}
+				
+				shuffle(a, lo, hi, rand);
+				quickSort(a, lo, hi);
+				
+				for (SortTask<T> task : forked) task.join();
+			}
+			finally {
+				if (SortStats.ENABLED) SortStats.restore(saved);
+			}
+		}
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		rangeCheck(a.length, from, to);
+		shuffle(a, from, to - 1);
+		quickSort(a, from, to - 1, c);
+	}
+	
+	private static <T> void quickSort(T[] a, int lo, int hi, Comparator<? super T> c) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.binarySort(a, lo, hi + 1, c);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int pivot = partition(a, lo, hi, c);
+		quickSort(a, lo, pivot-1, c);
+		quickSort(a, pivot+1, hi, c);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	// same as partition above, ordered by c
+	static <T> int partition(T[] a, int lo, int hi, Comparator<? super T> c) {
+		T p = a[lo];
+		int i = lo;
+		int j = hi + 1;
+		
+		while (true) {
+			while (lessThan(c, a[++i], p)) if (i == hi) break;
+			while (lessThan(c, p, a[--j]));
+			
+			if (i >= j) break;
+			swap(a, i, j);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		shuffle(a);
+		quickSort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(long[] a) {
+		shuffle(a);
+		quickSort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(double[] a) {
+		shuffle(a);
+		int hi = moveNaNsToEnd(a);
+		quickSort(a, 0, hi);
+		fixZeros(a, hi);
+	}
+	
+	/**
+	*	Sort with the given partition scheme instead of the Hoare partition
+	*/
+	public static void sort(int[] a, PartitionStrategy strategy) {
+		strategy.sort(a);
+	}
+	
+	public static void sort(long[] a, PartitionStrategy strategy) {
+		strategy.sort(a);
+	}
+	
+	public static void sort(double[] a, PartitionStrategy strategy) {
+		strategy.sort(a);
+	}
+	
+	public static void sort(int[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		shuffle(a, from, to - 1);
+		quickSort(a, from, to - 1);
+	}
+	
+	private static void quickSort(int[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int pivot = partition(a, lo, hi);
+		quickSort(a, lo, pivot-1);
+		quickSort(a, pivot+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	static int partition(int[] a, int lo, int hi) {
+		int p = a[lo];
+		int i = lo;
+		int j = hi + 1;
+		
+		while (true) {
+			while (a[++i] < p) if (i == hi) break;
+			while (p < a[--j]);
+			
+			if (i >= j) break;
+			swap(a, i, j);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
+	public static void sort(long[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		shuffle(a, from, to - 1);
+		quickSort(a, from, to - 1);
+	}
+	
+	private static void quickSort(long[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int pivot = partition(a, lo, hi);
+		quickSort(a, lo, pivot-1);
+		quickSort(a, pivot+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	static int partition(long[] a, int lo, int hi) {
+		long p = a[lo];
+		int i = lo;
+		int j = hi + 1;
+		
+		while (true) {
+			while (a[++i] < p) if (i == hi) break;
+			while (p < a[--j]);
+			
+			if (i >= j) break;
+			swap(a, i, j);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
+	// NaN and -0.0 are put in order inside the range, same as sort(double[])
+	public static void sort(double[] a, int from, int to) {
+		rangeCheck(a.length, from, to);
+		shuffle(a, from, to - 1);
+		int hi = moveNaNsToEnd(a, from, to - 1);
+		quickSort(a, from, hi);
+		fixZeros(a, from, hi);
+	}
+	
+	private static void quickSort(double[] a, int lo, int hi) {
+		if (hi - lo < InsertionSort.CUTOFF) {
+			InsertionSort.pairSort(a, lo, hi + 1);
+			return;
+		}
+		if (SortStats.ENABLED) SortStats.enter();
+		int pivot = partition(a, lo, hi);
+		quickSort(a, lo, pivot-1);
+		quickSort(a, pivot+1, hi);
+		if (SortStats.ENABLED) SortStats.exit();
+	}
+	
+	static int partition(double[] a, int lo, int hi) {
+		double p = a[lo];
+		int i = lo;
+		int j = hi + 1;
+		
+		while (true) {
+			while (a[++i] < p) if (i == hi) break;
+			while (p < a[--j]);
+			
+			if (i >= j) break;
+			swap(a, i, j);
+		}
+		swap(a, lo, j);
+		return j;
+	}
+	
 	public static void main(String[] args) {
 		int size = 10000000;
 		Integer[] test = new Integer[size];
@@ -0,0 +1,340 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+*	Parallel sample sort: split the array into k buckets by value, then sort every bucket on its own
+*	1. Sort a random sample of k * OVERSAMPLE items and take every OVERSAMPLE-th one as the k-1 splitters
+*	2. Cut the array into chunks. In parallel, each chunk finds the bucket of each of its items by
+*		walking a perfect binary tree of the splitters (no branch on the compare, just j = 2j + (less ? 1 : 0))
+*		remembers it in the oracle and counts its items per bucket
+*	3. Prefix sums of the counts give every chunk its own place in every bucket, so the chunks
+*		scatter their items into the buffer in parallel without any locking
+*	4. In parallel, each bucket is copied back and sorted: Quick3Way for T[], LSDRadixSort for int[]
+*	Oversampling keeps the buckets close to n/k items, and k is a few times the number of threads
+*	so a big bucket doesn't leave the other threads waiting
+*	Equality buckets: when the splitters have duplicates the input has a key that common, and every
+*	item equal to it would land in one bucket for one thread to sort. So then each bucket b gets a
+*	twin 2b+1 for the items equal to its splitter: those are all equal, so already sorted
+*	and only copied back. The rest of bucket b goes in 2b
+*	Not stable. The buffer and oracle are kept between calls like MergeSorter does, so use one
+*	SampleSort per thread, forCurrentThread() keeps one for each thread
+*/
+class SampleSort extends AbstractSort {
+	
+	private static final int SEQUENTIAL_CUTOFF = 1 << 16;  // smaller arrays are sorted by one thread
+	private static final int OVERSAMPLE = 32;
+	private static final int BUCKETS_PER_THREAD = 8;
+	private static final int MAX_BUCKETS = 128;            // with equality buckets 2 * this still fit in the byte oracle
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	private static final ThreadLocal<SampleSort> perThread = ThreadLocal.withInitial(SampleSort::new);
+	
+	private final ForkJoinPool pool;
+	private Object[] buffer = new Object[0];
+	private int[] intBuffer = new int[0];
+	private byte[] oracle = new byte[0];   // bucket of every item, from the classify step
+	
+	public SampleSort() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	public SampleSort(ForkJoinPool pool) {
+		if (pool == null) throw new NullPointerException("pool is null");
+		this.pool = pool;
+	}
+	
+	// SampleSort owned by the calling thread, running on the common pool
+	public static SampleSort forCurrentThread() {
+		return perThread.get();
+	}
+	
+	// drop the buffers, e.g. after sorting one unusually big array
+	public void release() {
+		buffer = new Object[0];
+		intBuffer = new int[0];
+		oracle = new byte[0];
+	}
+	
+	public <T extends Comparable<T>> void sort(T[] a) {
+		int n = a.length;
+		if (n <= SEQUENTIAL_CUTOFF) {
+			Quick3Way.sort(a);
+			return;
+		}
+		
+		int k = buckets();
+		int logK = Integer.numberOfTrailingZeros(k);
+		T[] tree = splitters(a, k);
+		T[] sorted = inOrder(tree, k);
+		boolean equal = hasDuplicates(sorted);  // equality buckets
+		int buckets = equal ? 2 * k : k;
+		if (buffer.length < n) {
+			buffer = new Object[Math.max(n, 2 * buffer.length)];
+			if (SortStats.ENABLED) SortStats.allocate(buffer.length);
+		}
+		if (oracle.length < n) oracle = new byte[Math.max(n, 2 * oracle.length)];
+		Object[] buffer = this.buffer;
+		byte[] oracle = this.oracle;
+		
+		int chunks = chunks();
+		int size = (n + chunks - 1) / chunks;
+		int[][] count = new int[chunks][buckets];
+		
+		forEach(chunks, c -> {
+			int[] cnt = count[c];
+			for (int i = c * size, end = Math.min(n, i + size); i < end; i++) {
+				T x = a[i];
+				int j = 1;
+				for (int l = 0; l < logK; l++) j = 2 * j + (lessThan(tree[j], x) ? 1 : 0);
+				int b = j - k;  // sorted[b-1] < x <= sorted[b]
+				if (equal) b = 2 * b + ((b < k - 1 && !lessThan(x, sorted[b])) ? 1 : 0);
+				oracle[i] = (byte) b;
+				cnt[b]++;
+			}
+		});
+		
+		int[] start = offsets(count, buckets);
+		if (SortStats.ENABLED) SortStats.move(2L * n);  // scattered to buffer, then copied back
+		forEach(chunks, c -> {
+			int[] next = count[c];
+			for (int i = c * size, end = Math.min(n, i + size); i < end; i++) {
+				buffer[next[oracle[i] & 0xff]++] = a[i];
+			}
+		});
+		
+		forEach(buckets, b -> {
+			int lo = start[b];
+			int hi = start[b+1] - 1;
+			if (hi < lo) return;
+			System.arraycopy(buffer, lo, a, lo, hi - lo + 1);
+			Arrays.fill(buffer, lo, hi + 1, null);  // don't hold on to the items until the next call
+			if (equal && b % 2 == 1) return;        // equality bucket, already sorted
+			shuffle(a, lo, hi, ThreadLocalRandom.current());
+			Quick3Way.sort(a, lo, hi);
+		});
+	}
+	
+	public void sort(int[] a) {
+		int n = a.length;
+		if (intBuffer.length < n) {
+			intBuffer = new int[Math.max(n, 2 * intBuffer.length)];
+			if (SortStats.ENABLED) SortStats.allocate(intBuffer.length);
+		}
+		int[] buffer = this.intBuffer;
+		if (n <= SEQUENTIAL_CUTOFF) {
+			LSDRadixSort.sort(a, 0, n - 1, buffer);
+			return;
+		}
+		
+		int k = buckets();
+		int logK = Integer.numberOfTrailingZeros(k);
+		int[] tree = splitters(a, k);
+		int[] sorted = inOrder(tree, k);
+		boolean equal = hasDuplicates(sorted);
+		int buckets = equal ? 2 * k : k;
+		if (oracle.length < n) oracle = new byte[Math.max(n, 2 * oracle.length)];
+		byte[] oracle = this.oracle;
+		
+		int chunks = chunks();
+		int size = (n + chunks - 1) / chunks;
+		int[][] count = new int[chunks][buckets];
+		
+		forEach(chunks, c -> {
+			int[] cnt = count[c];
+			for (int i = c * size, end = Math.min(n, i + size); i < end; i++) {
+				int x = a[i];
+				int j = 1;
+				for (int l = 0; l < logK; l++) j = 2 * j + (tree[j] < x ? 1 : 0);
+				int b = j - k;
+				if (equal) b = 2 * b + ((b < k - 1 && x == sorted[b]) ? 1 : 0);
+				oracle[i] = (byte) b;
+				cnt[b]++;
+			}
+		});
+		
+		int[] start = offsets(count, buckets);
+		if (SortStats.ENABLED) SortStats.move(2L * n);  // scattered to buffer, then copied back
+		forEach(chunks, c -> {
+			int[] next = count[c];
+			for (int i = c * size, end = Math.min(n, i + size); i < end; i++) {
+				buffer[next[oracle[i] & 0xff]++] = a[i];
+			}
+		});
+		
+		// after the copy back, the bucket's part of buffer is free to be the radix sort's aux
+		forEach(buckets, b -> {
+			int lo = start[b];
+			int hi = start[b+1] - 1;
+			if (hi < lo) return;
+			System.arraycopy(buffer, lo, a, lo, hi - lo + 1);
+			if (equal && b % 2 == 1) return;
+			LSDRadixSort.sort(a, lo, hi, buffer);
+		});
+	}
+	
+	// power of 2 so the splitters make a perfect binary tree
+	private int buckets() {
+		int k = Integer.highestOneBit(BUCKETS_PER_THREAD * pool.getParallelism());
+		return Math.max(2, Math.min(MAX_BUCKETS, k));
+	}
+	
+	private int chunks() {
+		return CHUNKS_PER_THREAD * pool.getParallelism();
+	}
+	
+	/**
+	*	returns the k-1 splitters as an implicit binary search tree: root at tree[1],
+	*	children of tree[j] at tree[2j] and tree[2j+1] (tree[0] isn't used)
+	*	Node j at depth d is the splitter whose rank is the middle of the ranks under it
+	*/
+	private static <T extends Comparable<T>> T[] splitters(T[] a, int k) {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		T[] sample = Arrays.copyOf(a, k * OVERSAMPLE);
+		for (int i = 0; i < sample.length; i++) sample[i] = a[rand.nextInt(a.length)];
+		Quick3Way.sort(sample);
+		
+		T[] tree = Arrays.copyOf(sample, k);
+		for (int j = 1; j < k; j++) tree[j] = sample[(rank(j, k) + 1) * OVERSAMPLE];
+		return tree;
+	}
+	
+	private static int[] splitters(int[] a, int k) {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int[] sample = new int[k * OVERSAMPLE];
+		for (int i = 0; i < sample.length; i++) sample[i] = a[rand.nextInt(a.length)];
+		QuickSort.sort(sample);
+		
+		int[] tree = new int[k];
+		for (int j = 1; j < k; j++) tree[j] = sample[(rank(j, k) + 1) * OVERSAMPLE];
+		return tree;
+	}
+	
+	// the k-1 splitters in sorted order, sorted[rank(j, k)] = tree[j]
+	private static <T> T[] inOrder(T[] tree, int k) {
+		T[] sorted = Arrays.copyOf(tree, k - 1);
+		for (int j = 1; j < k; j++) sorted[rank(j, k)] = tree[j];
+		return sorted;
+	}
+	
+	private static int[] inOrder(int[] tree, int k) {
+		int[] sorted = new int[k - 1];
+		for (int j = 1; j < k; j++) sorted[rank(j, k)] = tree[j];
+		return sorted;
+	}
+	
+	private static <T extends Comparable<T>> boolean hasDuplicates(T[] sorted) {
+		for (int r = 1; r < sorted.length; r++) {
+			if (!lessThan(sorted[r-1], sorted[r])) return true;
+		}
+		return false;
+	}
+	
+	private static boolean hasDuplicates(int[] sorted) {
+		for (int r = 1; r < sorted.length; r++) {
+			if (sorted[r-1] == sorted[r]) return true;
+		}
+		return false;
+	}
+	
+	// rank among the k-1 sorted splitters of tree node j
+	private static int rank(int j, int k) {
+		int depth = 31 - Integer.numberOfLeadingZeros(j);
+		int below = Integer.numberOfTrailingZeros(k) - depth;   // levels from node j down to the buckets
+		return ((j - (1 << depth)) << below) + (1 << (below - 1)) - 1;
+	}
+	
+	/**
+	*	Turn count[c][b] (items of chunk c in bucket b) into the index where chunk c writes its
+	*	first item of bucket b: all of bucket b comes after buckets 0 to b-1, and inside bucket b
+	*	chunk c comes after chunks 0 to c-1
+	*	returns start, where bucket b is start[b] to start[b+1]-1
+	*/
+	private static int[] offsets(int[][] count, int k) {
+		int[] start = new int[k + 1];
+		int next = 0;
+		for (int b = 0; b < k; b++) {
+			start[b] = next;
+			for (int[] cnt : count) {
+				int items = cnt[b];
+				cnt[b] = next;
+				next += items;
+			}
+		}
+		start[k] = next;
+		return start;
+	}
+	
+	// run body(0) to body(n-1) in parallel on the pool
+	private void forEach(int n, IntConsumer body) {
+		pool.invoke(new ForEach(body, 0, n));
+	}
+	
+	private static class ForEach extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final IntConsumer body;
+		private final int from;
+		private final int to;
+		private final int depth = SortStats.ENABLED ? SortStats.depth() + 1 : 0;  // one level below its creator
+		
+		ForEach(IntConsumer body, int from, int to) {
+			this.body = body;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			int saved = SortStats.ENABLED ? SortStats.resume(depth) : 0;
+			try {
+				if (to - from == 1) {
+					body.accept(from);
+					return;
+				}
+				int mid = (from + to) >>> 1;
+				invokeAll(new ForEach(body, from, mid), new ForEach(body, mid, to));
+			}
+			finally {
+				if (SortStats.ENABLED) SortStats.restore(saved);
+			}
+		}
+	}
+	
+	public static void main(String[] args) {
+		int size = 20000000;
+		int[] test = new int[size];
+		int[] copy = new int[size];
+		Integer[] boxed = new Integer[size / 4];
+		Integer[] boxedCopy = new Integer[size / 4];
+		
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) {
+			test[i] = rand.nextInt();
+			copy[i] = test[i];
+		}
+		for (int i = 0; i < boxed.length; i++) {
+			boxed[i] = rand.nextInt();
+			boxedCopy[i] = boxed[i];
+		}
+		
+		SampleSort sorter = SampleSort.forCurrentThread();
+		long start = System.currentTimeMillis();
+		sorter.sort(test);
+		System.out.println("SampleSort int[]:       " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		LSDRadixSort.sort(copy);
+		System.out.println("LSDRadixSort int[]:     " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		sorter.sort(boxed);
+		System.out.println("SampleSort Integer[]:   " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		Quick3Way.parallelSort(boxedCopy, 8192);
+		System.out.println("ParQuick3Way Integer[]: " + (float) (System.currentTimeMillis() - start) / 1000);
+	}
+}
\ No newline at end of file
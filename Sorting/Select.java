@@ -0,0 +1,287 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+*	Selection: k-th smallest item and the k smallest items without sorting the whole array
+*	Quickselect: partition like QuickSort, but only keep going into the side that has index k
+*	Expected O(N) with random pivots (N + N/2 + N/4 ... compares)
+*	Introselect: after 2*logN partitions the pivot is the median of medians of groups of 5 instead,
+*	which always throws away at least 30% of the items, so the worst case is O(N) too
+*	kth(a, k) leaves a partitioned around index k: a[0] to a[k-1] are <= a[k] <= a[k+1] to a[n-1]
+*	e.g. median is kth(a, a.length / 2), p99 is kth(a, (int) (0.99 * (a.length - 1)))
+*/
+class Select extends AbstractSort {
+	
+	private static final int CUTOFF = 16;  // small ranges are just insertion sorted
+	
+	public static <T extends Comparable<T>> T kth(T[] a, int k) {
+		checkIndex(a.length, k);
+		select(a, 0, a.length - 1, k);
+		return a[k];
+	}
+	
+	public static <T> T kth(T[] a, int k, Comparator<? super T> c) {
+		checkIndex(a.length, k);
+		select(a, 0, a.length - 1, k, c);
+		return a[k];
+	}
+	
+	/**
+	*	returns the k smallest items ordered by c, in order. For the k biggest pass c.reversed()
+	*	a is rearranged so that they are a[0] to a[k-1]. Only those k items get sorted
+	*/
+	public static <T> T[] topK(T[] a, int k, Comparator<? super T> c) {
+		checkCount(a.length, k);
+		if (k == 0) return Arrays.copyOf(a, 0);
+		select(a, 0, a.length - 1, k - 1, c);
+		QSort2Pivot.sort(a, 0, k, c);
+		return Arrays.copyOf(a, k);
+	}
+	
+	private static void checkIndex(int length, int k) {
+		if (k < 0 || k >= length) throw new IllegalArgumentException("k is " + k + " but length is " + length);
+	}
+	
+	private static void checkCount(int length, int k) {
+		if (k < 0 || k > length) throw new IllegalArgumentException("k is " + k + " but length is " + length);
+	}
+	
+	// 2 * floor(log2(n)) partitions with random pivots before switching to median of medians
+	private static int budget(int n) {
+		return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+	}
+	
+	/**
+	*	Move the k-th smallest of a[lo] to a[hi] to a[k], with smaller items before and bigger after
+	*	Uses QuickSort's partition, which wants the pivot at a[lo]
+	*/
+	private static <T extends Comparable<T>> void select(T[] a, int lo, int hi, int k) {
+		int budget = budget(hi - lo + 1);
+		while (hi - lo >= CUTOFF) {
+			int p = (budget-- > 0) ? ThreadLocalRandom.current().nextInt(lo, hi + 1) : medianOfMedians(a, lo, hi);
+			swap(a, lo, p);
+			int j = QuickSort.partition(a, lo, hi);
+			if (j > k) hi = j - 1;
+			else if (j < k) lo = j + 1;
+			else return;
+		}
+		InsertionSort.sort(a, lo, hi + 1);
+	}
+	
+	/**
+	*	Insertion sort every group of 5 and move its median to the front, then
+	*	select the median of those medians. returns its index
+	*/
+	private static <T extends Comparable<T>> int medianOfMedians(T[] a, int lo, int hi) {
+		int m = lo;
+		for (int g = lo; g <= hi; g += 5) {
+			int end = Math.min(g + 4, hi);
+			InsertionSort.sort(a, g, end + 1);
+			swap(a, m++, (g + end) >>> 1);
+		}
+		int mid = lo + (m - 1 - lo) / 2;
+		select(a, lo, m - 1, mid);
+		return mid;
+	}
+	
+	private static <T> void select(T[] a, int lo, int hi, int k, Comparator<? super T> c) {
+		int budget = budget(hi - lo + 1);
+		while (hi - lo >= CUTOFF) {
+			int p = (budget-- > 0) ? ThreadLocalRandom.current().nextInt(lo, hi + 1) : medianOfMedians(a, lo, hi, c);
+			swap(a, lo, p);
+			int j = QuickSort.partition(a, lo, hi, c);
+			if (j > k) hi = j - 1;
+			else if (j < k) lo = j + 1;
+			else return;
+		}
+		InsertionSort.sort(a, lo, hi + 1, c);
+	}
+	
+	private static <T> int medianOfMedians(T[] a, int lo, int hi, Comparator<? super T> c) {
+		int m = lo;
+		for (int g = lo; g <= hi; g += 5) {
+			int end = Math.min(g + 4, hi);
+			InsertionSort.sort(a, g, end + 1, c);
+			swap(a, m++, (g + end) >>> 1);
+		}
+		int mid = lo + (m - 1 - lo) / 2;
+		select(a, lo, m - 1, mid, c);
+		return mid;
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	topK returns the k smallest items in order
+	*	double: NaN is bigger than everything and -0.0 smaller than 0.0, same order as Double.compare
+	*/
+	public static int kth(int[] a, int k) {
+		checkIndex(a.length, k);
+		select(a, 0, a.length - 1, k);
+		return a[k];
+	}
+	
+	public static int[] topK(int[] a, int k) {
+		checkCount(a.length, k);
+		if (k == 0) return new int[0];
+		select(a, 0, a.length - 1, k - 1);
+		QSort2Pivot.dualPartition(a, 0, k - 1);
+		return Arrays.copyOf(a, k);
+	}
+	
+	public static long kth(long[] a, int k) {
+		checkIndex(a.length, k);
+		select(a, 0, a.length - 1, k);
+		return a[k];
+	}
+	
+	public static long[] topK(long[] a, int k) {
+		checkCount(a.length, k);
+		if (k == 0) return new long[0];
+		select(a, 0, a.length - 1, k - 1);
+		QSort2Pivot.dualPartition(a, 0, k - 1);
+		return Arrays.copyOf(a, k);
+	}
+	
+	public static double kth(double[] a, int k) {
+		checkIndex(a.length, k);
+		int hi = moveNaNsToEnd(a);
+		if (k > hi) return a[k];  // NaN
+		select(a, 0, hi, k);
+		signZeros(a, hi);
+		return a[k];
+	}
+	
+	public static double[] topK(double[] a, int k) {
+		checkCount(a.length, k);
+		if (k == 0) return new double[0];
+		int hi = moveNaNsToEnd(a);
+		int last = Math.min(k - 1, hi);  // a[last+1] to a[k-1] are NaN
+		if (last < hi) {
+			select(a, 0, hi, last);
+			signZeros(a, hi);
+		}
+		QSort2Pivot.dualPartition(a, 0, last);
+		fixZeros(a, last);
+		return Arrays.copyOf(a, k);
+	}
+	
+	/**
+	*	< can't tell -0.0 from 0.0, so select leaves them mixed. Zeros that come first
+	*	in the array get to be -0.0, which keeps every zero left of k <= every zero right of it
+	*/
+	private static void signZeros(double[] a, int hi) {
+		int negatives = 0;
+		int zeros = 0;
+		for (int i = 0; i <= hi; i++) {
+			if (a[i] != 0.0) continue;
+			zeros++;
+			if (Double.doubleToRawLongBits(a[i]) < 0) negatives++;
+		}
+		if (negatives == 0) return;
+		if (SortStats.ENABLED) SortStats.move(zeros);
+		
+		for (int i = 0; i <= hi; i++) {
+			if (a[i] == 0.0) a[i] = (negatives-- > 0) ? -0.0 : 0.0;
+		}
+	}
+	
+	private static void select(int[] a, int lo, int hi, int k) {
+		int budget = budget(hi - lo + 1);
+		while (hi - lo >= CUTOFF) {
+			int p = (budget-- > 0) ? ThreadLocalRandom.current().nextInt(lo, hi + 1) : medianOfMedians(a, lo, hi);
+			swap(a, lo, p);
+			int j = QuickSort.partition(a, lo, hi);
+			if (j > k) hi = j - 1;
+			else if (j < k) lo = j + 1;
+			else return;
+		}
+		InsertionSort.sort(a, lo, hi + 1);
+	}
+	
+	private static int medianOfMedians(int[] a, int lo, int hi) {
+		int m = lo;
+		for (int g = lo; g <= hi; g += 5) {
+			int end = Math.min(g + 4, hi);
+			InsertionSort.sort(a, g, end + 1);
+			swap(a, m++, (g + end) >>> 1);
+		}
+		int mid = lo + (m - 1 - lo) / 2;
+		select(a, lo, m - 1, mid);
+		return mid;
+	}
+	
+	private static void select(long[] a, int lo, int hi, int k) {
+		int budget = budget(hi - lo + 1);
+		while (hi - lo >= CUTOFF) {
+			int p = (budget-- > 0) ? ThreadLocalRandom.current().nextInt(lo, hi + 1) : medianOfMedians(a, lo, hi);
+			swap(a, lo, p);
+			int j = QuickSort.partition(a, lo, hi);
+			if (j > k) hi = j - 1;
+			else if (j < k) lo = j + 1;
+			else return;
+		}
+		InsertionSort.sort(a, lo, hi + 1);
+	}
+	
+	private static int medianOfMedians(long[] a, int lo, int hi) {
+		int m = lo;
+		for (int g = lo; g <= hi; g += 5) {
+			int end = Math.min(g + 4, hi);
+			InsertionSort.sort(a, g, end + 1);
+			swap(a, m++, (g + end) >>> 1);
+		}
+		int mid = lo + (m - 1 - lo) / 2;
+		select(a, lo, m - 1, mid);
+		return mid;
+	}
+	
+	private static void select(double[] a, int lo, int hi, int k) {
+		int budget = budget(hi - lo + 1);
+		while (hi - lo >= CUTOFF) {
+			int p = (budget-- > 0) ? ThreadLocalRandom.current().nextInt(lo, hi + 1) : medianOfMedians(a, lo, hi);
+			swap(a, lo, p);
+			int j = QuickSort.partition(a, lo, hi);
+			if (j > k) hi = j - 1;
+			else if (j < k) lo = j + 1;
+			else return;
+		}
+		InsertionSort.pairSort(a, lo, hi + 1);
+	}
+	
+	private static int medianOfMedians(double[] a, int lo, int hi) {
+		int m = lo;
+		for (int g = lo; g <= hi; g += 5) {
+			int end = Math.min(g + 4, hi);
+			InsertionSort.pairSort(a, g, end + 1);
+			swap(a, m++, (g + end) >>> 1);
+		}
+		int mid = lo + (m - 1 - lo) / 2;
+		select(a, lo, m - 1, mid);
+		return mid;
+	}
+	
+	public static void main(String[] args) {
+		int size = 10000000;
+		int[] latency = new int[size];
+		int[] copy = new int[size];
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) {
+			latency[i] = (int) (Math.exp(rand.nextGaussian()) * 1000);
+			copy[i] = latency[i];
+		}
+		
+		long start = System.currentTimeMillis();
+		int median = Select.kth(latency, size / 2);
+		int p99 = Select.kth(latency, (int) (0.99 * (size - 1)));
+		System.out.println("Select:    median " + median + " p99 " + p99 + "  " + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		start = System.currentTimeMillis();
+		QuickSort.sort(copy);
+		System.out.println("QuickSort: median " + copy[size / 2] + " p99 " + copy[(int) (0.99 * (size - 1))] + "  "
+						   + (float) (System.currentTimeMillis() - start) / 1000);
+		
+		String[] sarr = {"Hello", "World", "From", "Java", "Rookie"};
+		System.out.println(Arrays.toString(Select.topK(sarr, 3, Comparator.<String>reverseOrder())));
+	}
+}
\ No newline at end of file
@@ -1,3 +1,5 @@
+import java.util.Comparator;
+
 /**
 *	Go through array N times, each time get the smallest item in the array
 *	Swap smallest item to the right position (first iteration = 0th item, 2nd = 1st item, etc)
@@ -17,6 +19,81 @@ class SelectionSort extends AbstractSort {
 		}
 	}
 	
+	public static <T> void sort(T[] array, Comparator<? super T> c) {
+		sort(array, 0, array.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] array, int from, int to, Comparator<? super T> c) {
+		rangeCheck(array.length, from, to);
+		for (int i = from; i < to - 1; i++) {
+			int min = i;
+			
+			for (int j = i + 1; j < to; j++) {
+				if (lessThan(c, array[j], array[min])) min = j;
+			}
+			
+			swap(array, i, min);
+		}
+	}
+	
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		sort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(long[] a) {
+		sort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(double[] a) {
+		int hi = moveNaNsToEnd(a);
+		sort(a, 0, hi);
+		fixZeros(a, hi);
+	}
+	
+	private static void sort(int[] a, int lo, int hi) {
+		for (int i = lo; i < hi; i++) {
+			int min = i;
+			
+			for (int j = i + 1; j <= hi; j++) {
+				if (a[j] < a[min]) min = j;
+			}
+			
+			swap(a, i, min);
+		}
+	}
+	
+	private static void sort(long[] a, int lo, int hi) {
+		for (int i = lo; i < hi; i++) {
+			int min = i;
+			
+			for (int j = i + 1; j <= hi; j++) {
+				if (a[j] < a[min]) min = j;
+			}
+			
+			swap(a, i, min);
+		}
+	}
+	
+	private static void sort(double[] a, int lo, int hi) {
+		for (int i = lo; i < hi; i++) {
+			int min = i;
+			
+			for (int j = i + 1; j <= hi; j++) {
+				if (a[j] < a[min]) min = j;
+			}
+			
+			swap(a, i, min);
+		}
+	}
+	
 	public static void main(String[] args) {
 		Integer[] iarr = {1, 5, 3, 2, 5, 6, 1, 4};
 		String[] sarr = {"Hello", "World", "From", "Java", "Rookie"};
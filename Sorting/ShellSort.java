@@ -5,38 +5,150 @@ import java.util.*;
 *	i.e. First HSort sorts every multiple 7th element
 *		then second HSort sorts every multiple 3th element, last sort every element
 *	Runtime: at last sort, array is partially sorted so selection sort is fast. 
+*	The increments come from a GapSequence, CIURA unless another one is given
+*	In place and no recursion, the only extra memory is a few local variables
 */
 class ShellSort extends AbstractSort {
 	
+	private static final GapSequence DEFAULT = GapSequence.CIURA;
+	
 	public static <T extends Comparable<T>> void sort(T[] array) {
-		int length = array.length;
-		int H = HSequence(length);
-		
-		while (H >= 1) {
-			HSort.sort(array, H);
-			H = H / 3;
+		sort(array, DEFAULT);
+	}
+	
+	public static <T extends Comparable<T>> void sort(T[] array, GapSequence gaps) {
+		for (int k = gaps.first(array.length); k >= 0; k--) {
+			HSort.sort(array, gaps.gaps[k]);
+		}
+	}
+	
+	public static <T> void sort(T[] array, Comparator<? super T> c) {
+		sort(array, 0, array.length, c);
+	}
+	
+	/**
+	*	Comparator versions sort by c instead of natural order
+	*	from is inclusive and to is exclusive, same as Arrays.sort
+	*/
+	public static <T> void sort(T[] array, int from, int to, Comparator<? super T> c) {
+		rangeCheck(array.length, from, to);
+		for (int k = DEFAULT.first(to - from); k >= 0; k--) {
+			HSort.sort(array, from, to - 1, DEFAULT.gaps[k], c);
 		}
 	}
 	
-	//returns the highest number H in the sequence for HSort
-	private static int HSequence(int length) {
-		int H = 1;
-		while (H < length / 3) H = 3 * H + 1;			return H;
+	/**
+	*	Primitive versions compare with < directly instead of compareTo on boxed items
+	*	double: NaN goes to the end and -0.0 before 0.0, same order as Double.compare
+	*/
+	public static void sort(int[] a) {
+		sort(a, DEFAULT);
+	}
+	
+	/**
+	*	int fast path: all the passes in one loop with the item held in a local,
+	*	no HSort calls and nothing but int compares in the inner loop
+	*/
+	public static void sort(int[] a, GapSequence gaps) {
+		int n = a.length;
+		for (int k = gaps.first(n); k >= 0; k--) {
+			int h = gaps.gaps[k];
+			for (int i = h; i < n; i++) {
+				int x = a[i];
+				int j = i;
+				while (j >= h && x < a[j-h]) {
+					a[j] = a[j-h];
+					j -= h;
+				}
+				if (SortStats.ENABLED) SortStats.move((i - j) / h + 1);
+				a[j] = x;
+			}
+		}
+	}
+	
+	public static void sort(long[] a) {
+		sort(a, 0, a.length - 1);
+	}
+	
+	public static void sort(double[] a) {
+		int hi = moveNaNsToEnd(a);
+		sort(a, 0, hi);
+		fixZeros(a, hi);
+	}
+	
+	private static void sort(long[] a, int lo, int hi) {
+		for (int k = DEFAULT.first(hi - lo + 1); k >= 0; k--) {
+			HSort.sort(a, lo, hi, DEFAULT.gaps[k]);
+		}
+	}
+	
+	private static void sort(double[] a, int lo, int hi) {
+		for (int k = DEFAULT.first(hi - lo + 1); k >= 0; k--) {
+			HSort.sort(a, lo, hi, DEFAULT.gaps[k]);
+		}
 	}
 	
 	/**
 	*	H-based sort with H as increments
 	*	Similar to Selection sort but check multiples of H-th element instead of every element
+	*	Insertion with a hole: hold the item, shift bigger items H to the right,
+	*	then drop the item in the hole. 1 write per step instead of a 3 move swap
 	*/
 	private static class HSort {
 		
 		private static <T extends Comparable<T>> void sort(T[] arr, int inc) {
 			
 			for (int i = inc; i < arr.length; i++) {
-				for (int j = i; j >= inc; j -= inc) {
-					if (lessThan(arr[j], arr[j-inc])) swap(arr, j, j - inc);
-					else break;
+				T x = arr[i];
+				int j = i;
+				while (j >= inc && lessThan(x, arr[j-inc])) {
+					arr[j] = arr[j-inc];
+					j -= inc;
 				}
+				if (SortStats.ENABLED) SortStats.move((i - j) / inc + 1);
+				arr[j] = x;
+			}
+		}
+		
+		private static <T> void sort(T[] arr, int lo, int hi, int inc, Comparator<? super T> c) {
+			
+			for (int i = lo + inc; i <= hi; i++) {
+				T x = arr[i];
+				int j = i;
+				while (j >= lo + inc && lessThan(c, x, arr[j-inc])) {
+					arr[j] = arr[j-inc];
+					j -= inc;
+				}
+				if (SortStats.ENABLED) SortStats.move((i - j) / inc + 1);
+				arr[j] = x;
+			}
+		}
+		
+		private static void sort(long[] a, int lo, int hi, int inc) {
+			
+			for (int i = lo + inc; i <= hi; i++) {
+				long x = a[i];
+				int j = i;
+				while (j >= lo + inc && x < a[j-inc]) {
+					a[j] = a[j-inc];
+					j -= inc;
+				}
+				if (SortStats.ENABLED) SortStats.move((i - j) / inc + 1);
+				a[j] = x;
+			}
+		}
+		
+		private static void sort(double[] a, int lo, int hi, int inc) {
+			
+			for (int i = lo + inc; i <= hi; i++) {
+				double x = a[i];
+				int j = i;
+				while (j >= lo + inc && x < a[j-inc]) {
+					a[j] = a[j-inc];
+					j -= inc;
+				}
+				if (SortStats.ENABLED) SortStats.move((i - j) / inc + 1);
+				a[j] = x;
 			}
 		}
 	}
@@ -59,5 +171,14 @@ class ShellSort extends AbstractSort {
 		ShellSort.sort(test);
 		System.out.println((float) (System.currentTimeMillis() - start) / 1000);
 		//print(test);
+		
+		int[] input = new int[10000000];
+		for (int i = 0; i < input.length; i++) input[i] = rand.nextInt();
+		for (GapSequence gaps : GapSequence.values()) {
+			int[] a = input.clone();
+			start = System.currentTimeMillis();
+			ShellSort.sort(a, gaps);
+			System.out.println(gaps + ": " + (float) (System.currentTimeMillis() - start) / 1000);
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+*	Benchmark harness for every algorithm in Sorting
+*	Each (algorithm, input, size) runs warmup rounds first so the JIT has compiled the
+*	sort before any timing, then measured rounds on a fresh copy of the same input
+*	Reports ops/s, allocation rate (MB/s, from the allocation counters of all live threads so
+*	the ForkJoin workers of the parallel sorts count too) and GC count/time
+*
+*	Usage: java SortBenchmark [int|Integer] [size ...]
+*		default runs Integer[] at 1K, 10K, 100K, 1M and 10M
+*		quadratic sorts (insertion, selection) are skipped above QUADRATIC_LIMIT
+*/
+class SortBenchmark {
+	
+	private static final int QUADRATIC_LIMIT = 100000;
+	private static final long MIN_MEASURE_NANOS = 1000000000L;  // keep measuring for at least 1 sec
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int PARALLEL_CUTOFF = 8192;
+	
+	/**
+	*	Input distributions. Each one is generated from the same seed so every
+	*	algorithm sorts exactly the same data
+	*/
+	enum Input {
+		RANDOM, FEW_DISTINCT, SORTED, REVERSED, SAWTOOTH, ORGAN_PIPE;
+		
+		int[] generate(int n, long seed) {
+			Random rand = new Random(seed);
+			int[] a = new int[n];
+			for (int i = 0; i < n; i++) {
+				switch (this) {
+					case RANDOM:       a[i] = rand.nextInt(); break;
+					case FEW_DISTINCT: a[i] = rand.nextInt(16); break;
+					case SORTED:       a[i] = i; break;
+					case REVERSED:     a[i] = n - i; break;
+					case SAWTOOTH:     a[i] = i % 1000; break;
+					case ORGAN_PIPE:   a[i] = (i < n / 2) ? i : n - i; break;
+				}
+			}
+			return a;
+		}
+	}
+	
+	/**
+	*	One benchmarked algorithm: the Integer[] and int[] entry points
+	*	boxed or primitive is null when the algorithm has no Integer[] or int[] version
+	*/
+	private static class Algorithm {
+		private final String name;
+		private final boolean quadratic;
+		private final Consumer<Integer[]> boxed;
+		private final Consumer<int[]> primitive;
+		
+		Algorithm(String name, boolean quadratic, Consumer<Integer[]> boxed, Consumer<int[]> primitive) {
+			this.name = name;
+			this.quadratic = quadratic;
+			this.boxed = boxed;
+			this.primitive = primitive;
+		}
+	}
+	
+	private static List<Algorithm> algorithms() {
+		List<Algorithm> list = new ArrayList<Algorithm>();
+		list.add(new Algorithm("QuickSort", false, QuickSort::sort, QuickSort::sort));
+		list.add(new Algorithm("Quick3Way", false, Quick3Way::sort, Quick3Way::sort));
+		list.add(new Algorithm("ParQuickSort", false, a -> QuickSort.parallelSort(a, PARALLEL_CUTOFF), null));
+		list.add(new Algorithm("ParQuick3Way", false, a -> Quick3Way.parallelSort(a, PARALLEL_CUTOFF), null));
+		list.add(new Algorithm("ParMergeSort", false, a -> MergeSort.parallelSort(a, PARALLEL_CUTOFF), null));
+		list.add(new Algorithm("SampleSort", false, a -> SampleSort.forCurrentThread().sort(a),
+							   a -> SampleSort.forCurrentThread().sort(a)));
+		list.add(new Algorithm("QSort2Pivot", false, QSort2Pivot::sort, QSort2Pivot::sort));
+		list.add(new Algorithm("MergeSort", false, MergeSort::sort, MergeSort::sort));
+		list.add(new Algorithm("NaturalMerge", false, NaturalMergeSort::sort, null));
+		list.add(new Algorithm("BlockQuick", false, null, BlockQuickSort::sort));
+		list.add(new Algorithm("LSDRadixSort", false, null, LSDRadixSort::sort));
+		list.add(new Algorithm("HeapSort", false, HeapSort::sort, HeapSort::sort));
+		list.add(new Algorithm("HeapSort4", false, a -> HeapSort.sort(a, 4), a -> HeapSort.sort(a, 4)));
+		list.add(new Algorithm("HeapSort8", false, a -> HeapSort.sort(a, 8), a -> HeapSort.sort(a, 8)));
+		list.add(new Algorithm("ShellSort", false, ShellSort::sort, ShellSort::sort));
+		list.add(new Algorithm("IntroSort", false, IntroSort::sort, null));
+		list.add(new Algorithm("InsertionSort", true, InsertionSort::sort, InsertionSort::sort));
+		list.add(new Algorithm("SelectionSort", true, SelectionSort::sort, SelectionSort::sort));
+		return list;
+	}
+	
+	/**
+	*	Run the sort on a copy of input until MIN_MEASURE_NANOS has passed
+	*	Copying into the same work array every round keeps the copy out of the allocation numbers
+	*/
+	private static void run(Algorithm alg, Input input, int n, boolean boxed) {
+		int[] source = input.generate(n, 42);
+		Integer[] boxedSource = null;
+		Integer[] boxedWork = null;
+		int[] work = new int[n];
+		if (boxed) {
+			boxedSource = new Integer[n];
+			for (int i = 0; i < n; i++) boxedSource[i] = source[i];
+			boxedWork = new Integer[n];
+		}
+		
+		try {
+			for (int i = 0; i < WARMUP_ROUNDS; i++) {
+				sortOnce(alg, boxed, source, work, boxedSource, boxedWork);
+			}
+			
+			long gcCount = gcCount();
+			long gcTime = gcTime();
+			long allocated = allocatedBytes();
+			long elapsed = 0;
+			int ops = 0;
+			while (elapsed < MIN_MEASURE_NANOS) {
+				elapsed += sortOnce(alg, boxed, source, work, boxedSource, boxedWork);
+				ops++;
+			}
+			allocated = allocatedBytes() - allocated;
+			
+			double seconds = elapsed / 1e9;
+			System.out.printf("%-14s %-13s %10d %12.3f %12.1f %8d %8d%n", alg.name, input, n,
+							  ops / seconds, allocated / seconds / (1 << 20),
+							  gcCount() - gcCount, gcTime() - gcTime);
+		}
+		catch (StackOverflowError e) {
+			System.out.printf("%-14s %-13s %10d %12s%n", alg.name, input, n, "stack overflow");
+		}
+	}
+	
+	// returns the time in nanos the sort took, the copy isn't timed
+	private static long sortOnce(Algorithm alg, boolean boxed, int[] source, int[] work,
+								 Integer[] boxedSource, Integer[] boxedWork) {
+		long start;
+		if (boxed) {
+			System.arraycopy(boxedSource, 0, boxedWork, 0, boxedSource.length);
+			start = System.nanoTime();
+			alg.boxed.accept(boxedWork);
+		}
+		else {
+			System.arraycopy(source, 0, work, 0, source.length);
+			start = System.nanoTime();
+			alg.primitive.accept(work);
+		}
+		return System.nanoTime() - start;
+	}
+	
+	/**
+	*	Bytes allocated so far by every live thread, not just this one: the parallel sorts
+	*	allocate on ForkJoin workers. Pool workers stay alive between rounds, so the
+	*	difference over a measurement is what the sort allocated
+	*/
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			long sum = 0;
+			for (long bytes : ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(bean.getAllThreadIds())) {
+				if (bytes > 0) sum += bytes;  // -1 for a thread that ended after getAllThreadIds
+			}
+			return sum;
+		}
+		return 0;
+	}
+	
+	private static long gcCount() {
+		long sum = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) sum += gc.getCollectionCount();
+		return sum;
+	}
+	
+	private static long gcTime() {
+		long sum = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) sum += gc.getCollectionTime();
+		return sum;
+	}
+	
+	public static void main(String[] args) {
+		boolean boxed = true;
+		List<Integer> sizes = new ArrayList<Integer>();
+		for (String arg : args) {
+			if (arg.equals("int")) boxed = false;
+			else if (arg.equals("Integer")) boxed = true;
+			else sizes.add(Integer.parseInt(arg));
+		}
+		if (sizes.isEmpty()) {
+			for (int n = 1000; n <= 10000000; n *= 10) sizes.add(n);
+		}
+		
+		System.out.printf("%-14s %-13s %10s %12s %12s %8s %8s%n",
+						  "algorithm", "input", "size", "ops/s", "alloc MB/s", "gc", "gc ms");
+		for (Algorithm alg : algorithms()) {
+			for (Input input : Input.values()) {
+				for (int n : sizes) {
+					if (alg.quadratic && n > QUADRATIC_LIMIT) continue;
+					if (boxed ? alg.boxed == null : alg.primitive == null) continue;
+					run(alg, input, n, boxed);
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+*	Counts what the sorts do: compares, swaps, array reads and writes, deepest recursion
+*	and scratch array slots allocated
+*	Off unless the JVM is started with -Dsort.stats=true. ENABLED is static final, so when it's
+*	false every "if (SortStats.ENABLED)" hook is dead code the JIT removes, sorts pay nothing for it
+*	Where it's counted:
+*	- compares: AbstractSort.lessThan and Quick3Way's compareTo, so object sorts only (primitives use <)
+*	- swaps: AbstractSort.swap, each one is also 2 reads and 2 writes
+*	- reads and writes: every item a sort stores, 1 read and 1 write each. Swaps count 2 of each,
+*		shifts and holes of insertion sorts, sinks, merges, radix passes and copies to and from temp 1
+*	- depth: the recursive kernels of QuickSort, Quick3Way, QSort2Pivot, MergeSort, IntroSort, MSDRadixSort
+*		and KeySort, and the fork-join tasks of the parallel sorts
+*	- allocated: temp and aux arrays from MergeSort, MergeSorter, NaturalMergeSort, LSDRadixSort, SampleSort, KeySort
+*	Counters are shared by every thread so parallel sorts are counted in full, which also means
+*	sorts running at the same time on other threads are counted too
+*	Depth is kept per thread. A fork-join task takes its creator's depth + 1 along to whichever
+*	thread runs it (resume and restore), so maxDepth is right for the parallel sorts too
+*	Usage: SortStats stats = SortStats.measure(() -> QuickSort.sort(a));
+*/
+final class SortStats {
+	
+	static final boolean ENABLED = Boolean.getBoolean("sort.stats");
+	
+	private static final LongAdder compareCount = new LongAdder();
+	private static final LongAdder swapCount = new LongAdder();
+	private static final LongAdder readCount = new LongAdder();
+	private static final LongAdder writeCount = new LongAdder();
+	private static final LongAdder allocatedCount = new LongAdder();
+	private static final LongAccumulator deepest = new LongAccumulator(Math::max, 0);
+	private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+	
+	private final long compares;
+	private final long swaps;
+	private final long reads;
+	private final long writes;
+	private final long maxDepth;
+	private final long allocated;
+	
+	private SortStats() {
+		compares = compareCount.sum();
+		swaps = swapCount.sum();
+		reads = readCount.sum();
+		writes = writeCount.sum();
+		maxDepth = deepest.get();
+		allocated = allocatedCount.sum();
+	}
+	
+	/**
+	*	Reset the counters, run sort and return what it did
+	*	throws IllegalStateException if the JVM wasn't started with -Dsort.stats=true
+	*/
+	public static SortStats measure(Runnable sort) {
+		reset();
+		sort.run();
+		return snapshot();
+	}
+	
+	public static void reset() {
+		checkEnabled();
+		compareCount.reset();
+		swapCount.reset();
+		readCount.reset();
+		writeCount.reset();
+		allocatedCount.reset();
+		deepest.reset();
+	}
+	
+	// counts since the last reset
+	public static SortStats snapshot() {
+		checkEnabled();
+		return new SortStats();
+	}
+	
+	private static void checkEnabled() {
+		if (!ENABLED) throw new IllegalStateException("sort stats are off, run with -Dsort.stats=true");
+	}
+	
+	public long compares()  { return compares; }
+	public long swaps()     { return swaps; }
+	public long reads()     { return reads; }
+	public long writes()    { return writes; }
+	public long maxDepth()  { return maxDepth; }
+	public long allocated() { return allocated; }
+	
+	@Override
+	public String toString() {
+		return "compares=" + compares + " swaps=" + swaps + " reads=" + reads + " writes=" + writes
+			   + " maxDepth=" + maxDepth + " allocated=" + allocated;
+	}
+	
+	/**
+	*	Hooks called by the sorts, always as "if (SortStats.ENABLED) SortStats.hook()"
+	*/
+	static void compare() {
+		compareCount.increment();
+	}
+	
+	static void swap() {
+		swapCount.increment();
+		readCount.add(2);
+		writeCount.add(2);
+	}
+	
+	// n items copied from one array to another: n reads and n writes
+	static void move(long n) {
+		readCount.add(n);
+		writeCount.add(n);
+	}
+	
+	// scratch array of n slots
+	static void allocate(long n) {
+		allocatedCount.add(n);
+	}
+	
+	// called when a recursive kernel starts, and exit() when it's done
+	static void enter() {
+		int d = ++depth.get()[0];
+		deepest.accumulate(d);
+	}
+	
+	static void exit() {
+		depth.get()[0]--;
+	}
+	
+	// depth of the calling thread right now
+	static int depth() {
+		return depth.get()[0];
+	}
+	
+	/**
+	*	Called when a fork-join task starts: the thread is now at the task's depth d
+	*	A worker can run a stolen task while it waits in join(), so returns the thread's own depth
+	*	which restore() puts back when the task is done
+	*/
+	static int resume(int d) {
+		int[] current = depth.get();
+		int saved = current[0];
+		current[0] = d;
+		deepest.accumulate(d);
+		return saved;
+	}
+	
+	static void restore(int saved) {
+		depth.get()[0] = saved;
+	}
+	
+	public static void main(String[] args) {
+		if (!ENABLED) {
+			System.out.println("Usage: java -Dsort.stats=true SortStats");
+			return;
+		}
+		
+		int size = 1000000;
+		Integer[] input = new Integer[size];
+		java.util.Random rand = new java.util.Random();
+		for (int i = 0; i < size; i++) input[i] = rand.nextInt();
+		
+		Integer[] a = input.clone();
+		System.out.println("QuickSort:   " + measure(() -> QuickSort.sort(a)));
+		Integer[] b = input.clone();
+		System.out.println("Quick3Way:   " + measure(() -> Quick3Way.sort(b)));
+		Integer[] c = input.clone();
+		System.out.println("QSort2Pivot: " + measure(() -> QSort2Pivot.sort(c)));
+		Integer[] d = input.clone();
+		System.out.println("MergeSort:   " + measure(() -> MergeSort.sort(d)));
+		Integer[] e = input.clone();
+		System.out.println("IntroSort:   " + measure(() -> IntroSort.sort(e)));
+		Integer[] f = input.clone();
+		System.out.println("HeapSort:    " + measure(() -> HeapSort.sort(f)));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+/**
+*	Picks a sort for the caller by looking at the input first
+*	- small arrays:           InsertionSort, nothing beats it under CUTOFF items
+*	- few runs (presorted):   NaturalMergeSort, O(N) on sorted or reverse sorted runs
+*	- many duplicates:        Quick3Way, items equal to the pivot are done after 1 partition
+*	- everything else:        IntroSort, QuickSort speed with an O(NlogN) worst case
+*	The checks are cheap next to the sort: the run count stops as soon as the input is
+*	clearly not presorted, and duplicates are estimated from SAMPLE evenly spaced items
+*	Every choice is reported to the Listener so choices can be checked against real traffic
+*/
+class Sorts {
+	
+	private static final int CUTOFF = 32;
+	private static final int SAMPLE = 256;
+	private static final int PRESORTED_RUNS = 64;     // at most N / this many direction changes counts as presorted
+	private static final double DUPLICATE_RATIO = 0.5; // fewer distinct items in the sample than this
+	
+	enum Algorithm { INSERTION_SORT, NATURAL_MERGE_SORT, QUICK_3WAY, INTRO_SORT }
+	
+	/**
+	*	Told which algorithm sort() picked for an array of length n
+	*/
+	interface Listener {
+		void chosen(Algorithm algorithm, int n);
+	}
+	
+	private static volatile Listener listener = null;
+	
+	// listener is null to stop reporting
+	public static void setListener(Listener l) {
+		listener = l;
+	}
+	
+	public static <T extends Comparable<T>> void sort(T[] a) {
+		Algorithm algorithm = choose(a);
+		
+		Listener l = listener;
+		if (l != null) l.chosen(algorithm, a.length);
+		
+		switch (algorithm) {
+			case INSERTION_SORT:     InsertionSort.sort(a); break;
+			case NATURAL_MERGE_SORT: NaturalMergeSort.sort(a); break;
+			case QUICK_3WAY:         Quick3Way.sort(a); break;
+			default:                 IntroSort.sort(a); break;
+		}
+	}
+	
+	static <T extends Comparable<T>> Algorithm choose(T[] a) {
+		int n = a.length;
+		if (n <= CUTOFF) return Algorithm.INSERTION_SORT;
+		if (isPresorted(a)) return Algorithm.NATURAL_MERGE_SORT;
+		if (distinctRatio(a) < DUPLICATE_RATIO) return Algorithm.QUICK_3WAY;
+		return Algorithm.INTRO_SORT;
+	}
+	
+	/**
+	*	Count places where the order changes direction (a descent in an ascending stretch
+	*	or an ascent in a descending one). Few changes means a few long runs
+	*	Random input changes direction every few items, so the scan stops early for it
+	*/
+	private static <T extends Comparable<T>> boolean isPresorted(T[] a) {
+		int limit = a.length / PRESORTED_RUNS;
+		int changes = 0;
+		boolean ascending = !AbstractSort.lessThan(a[1], a[0]);
+		for (int i = 2; i < a.length; i++) {
+			boolean up = !AbstractSort.lessThan(a[i], a[i-1]);
+			if (up != ascending) {
+				if (++changes > limit) return false;
+				ascending = up;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	*	returns distinct items / sampled items for up to SAMPLE evenly spaced items of a
+	*	Distinct means by compareTo, the order the sorts use, not equals: BigDecimal 2.0 and 2.00
+	*	aren't equal but they are duplicates to a sort. Sort the sample and count the neighbours
+	*	that compare differently
+	*	Evenly spaced so no index is sampled twice, which would look like a duplicate
+	*/
+	private static <T extends Comparable<T>> double distinctRatio(T[] a) {
+		int n = a.length;
+		int k = Math.min(SAMPLE, n);
+		T[] sample = java.util.Arrays.copyOf(a, k);
+		for (int s = 0; s < k; s++) sample[s] = a[(int) ((long) s * n / k)];
+		MergeSort.sort(sample);
+		
+		int distinct = 1;
+		for (int s = 1; s < k; s++) {
+			if (AbstractSort.lessThan(sample[s-1], sample[s])) distinct++;
+		}
+		return (double) distinct / k;
+	}
+	
+	public static void main(String[] args) {
+		int size = 1000000;
+		java.util.Random rand = new java.util.Random();
+		Integer[] random = new Integer[size];
+		Integer[] sorted = new Integer[size];
+		Integer[] duplicates = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			random[i] = rand.nextInt();
+			sorted[i] = (rand.nextInt(1000) == 0) ? rand.nextInt() : i;
+			duplicates[i] = rand.nextInt(100);
+		}
+		
+		Sorts.setListener((algorithm, n) -> System.out.println(algorithm + " for " + n + " items"));
+		Sorts.sort(random);
+		Sorts.sort(sorted);
+		Sorts.sort(duplicates);
+		Sorts.sort(new String[] {"Hello", "World", "From", "Java", "Rookie"});
+	}
+}
\ No newline at end of file